@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cada consulta de Main, optimizada y original, sobre datos generados de varios tamaños
+// (los mismos que la sección suite de Benchmark, que además comprueba que las dos
+// coinciden). JMH no admite benchmarks en el paquete por defecto, y desde un paquete con
+// nombre no se pueden importar sus clases: las consultas se obtienen una vez, por
+// reflexión, de Benchmark.queries, y lo que se mide es solo la llamada a la consulta.
+// En la variante optimized los índices ya están construidos; withBuild los construye
+// desde los datos en cada llamada, que es lo que cuesta una consulta suelta.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class QueryBenchmark {
+    @Param({
+            "dictionary/1 aToM", "dictionary/2 nToEnd", "dictionary/3 byFirstLetters", "dictionary/4 palindromes",
+            "dictionary/5 vowels", "dictionary/6 aStartZEnd", "dictionary/7 longest",
+            "movies/1 moviesPerDirector", "movies/2 genresPerDirector", "movies/3 dramaComedia",
+            "movies/4 moviesPerYear", "movies/5 peakYear",
+            "countries/1 mostPopulatedCityOfContinent", "countries/2 mostPopulatedCapital",
+            "countries/3 mostPopulatedCapitalOfContinent", "countries/4 citiesPerCountry", "countries/5 byDensity",
+            "countries/6 richestCountryByContinent", "countries/7 populationStatistics",
+            "countries/8 populationStatisticsByContinent", "countries/9 populationExtremes",
+            "countries/10 populationExtremesByContinent", "countries/11 byCitiesByContinent",
+            "countries/12 cityExtremesByCountry", "countries/13 gnpStatistics",
+            "animals/1-2 byPet", "animals/3 mostLegged", "animals/4 hundredAtRandom", "animals/5 totalLegs",
+            "animals/6 byLegs", "animals/7 perSpecies", "animals/8 numberOfSpecies"})
+    public String query;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"optimized", "withBuild", "baseline"})
+    public String variant;
+
+    private Supplier<Object> body;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws ReflectiveOperationException {
+        int slash = query.indexOf('/');
+        Object suite = Class.forName("Benchmark").getMethod("queries", String.class, int.class)
+                .invoke(null, query.substring(0, slash), size);
+        Map<String, Supplier<Object>> queries = (Map<String, Supplier<Object>>) suite.getClass()
+                .getMethod(variant).invoke(suite);
+        body = queries.get(query.substring(slash + 1));
+        if (body == null) throw new IllegalArgumentException("Unknown query: " + query);
+    }
+
+    @Benchmark
+    public Object run() {
+        return body.get();
+    }
+}
@@ -0,0 +1,88 @@
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import animals.Animal;
+
+// Las consultas de animales de Main sobre una lista cualquiera. El rebaño compacto se
+// construye una vez, al crear el objeto, y sus posiciones coinciden con las de la lista.
+public final class AnimalQueries {
+    private final List<Animal> animals;
+    private final Herd herd;
+    // null si no hay caché.
+    private final QueryCache cache;
+
+    public AnimalQueries(List<Animal> animals) {
+        this(animals, null);
+    }
+
+    // Con caché, cada consulta se calcula una vez por conjunto de datos mientras quepa en ella.
+    // Se guarda una copia inmutable de la lista (la misma si ya lo era), que es lo que
+    // identifica los datos en la caché.
+    public AnimalQueries(List<Animal> animals, QueryCache cache) {
+        this.animals = List.copyOf(animals);
+        this.cache = cache;
+        this.herd = Herd.of(this.animals);
+    }
+
+    // 1 y 2. Animales salvajes (false) y mascotas (true).
+    public Map<Boolean, List<Animal>> byPet() {
+        return run("1-2 byPet", () ->
+                animals.stream().collect(Collectors.partitioningBy(animal -> Species.of(animal).isPet())));
+    }
+
+    // 3. Animal con más patas.
+    public Animal mostLegged() {
+        return run("3 mostLegged", () -> animals.get(herd.mostLegged(false)));
+    }
+
+    // 4. 100 animales al azar (siempre los mismos para la misma lista).
+    public List<Animal> hundredAtRandom() {
+        return run("4 hundredAtRandom", () -> animals.stream().collect(Reservoir.collector(100, 42)));
+    }
+
+    // 5. Número total de patas.
+    public long totalLegs() {
+        return run("5 totalLegs", () -> herd.totalLegs(false));
+    }
+
+    // 6. Animales agrupados por número de patas.
+    public Map<Integer, List<Animal>> byLegs() {
+        return run("6 byLegs", () -> Species.byLegs(animals));
+    }
+
+    // 7. Animales de cada especie.
+    public Map<String, Long> perSpecies() {
+        return run("7 perSpecies", () -> Species.named(Species.counts(animals)));
+    }
+
+    // 8. Número de especies.
+    public int numberOfSpecies() {
+        return run("8 numberOfSpecies", () -> {
+            int species = 0;
+            for (long count : Species.counts(animals)) if (count > 0) species++;
+            return species;
+        });
+    }
+
+    private <T> T run(String query, Supplier<T> body) {
+        if (cache == null) return QueryMetrics.run("animals", query, animals.size(), body);
+        return cache.get("animals", query, animals,
+                () -> QueryMetrics.run("animals", query, animals.size(), body));
+    }
+
+    // Todas las consultas por número, en orden.
+    public Map<String, Supplier<Object>> all() {
+        Map<String, Supplier<Object>> queries = new LinkedHashMap<>();
+        queries.put("1-2 byPet", this::byPet);
+        queries.put("3 mostLegged", this::mostLegged);
+        queries.put("4 hundredAtRandom", this::hundredAtRandom);
+        queries.put("5 totalLegs", this::totalLegs);
+        queries.put("6 byLegs", this::byLegs);
+        queries.put("7 perSpecies", this::perSpecies);
+        queries.put("8 numberOfSpecies", this::numberOfSpecies);
+        return queries;
+    }
+}
@@ -0,0 +1,222 @@
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import animals.*;
+import pets.*;
+
+// Las consultas tal como estaban escritas originalmente en Main, sin ninguna de las
+// optimizaciones, como referencia para medir cada mejora contra ellas. Se conservan
+// tal cual, con sus comparadores por resta y sus recorridos anidados.
+final class Baselines {
+    private Baselines() { }
+
+    static Map<String, Supplier<Object>> dictionary(List<String> lines) {
+        Map<String, Supplier<Object>> queries = new LinkedHashMap<>();
+        queries.put("1 aToM", () -> lines.stream().filter(word -> word.charAt(0) < 'm' ).toList());
+        queries.put("2 nToEnd", () -> lines.stream().filter(word -> word.charAt(0) >= 'n').toList());
+        queries.put("3 byFirstLetters", () -> lines.stream().collect(Collectors.groupingBy(
+                word -> getFirstLetters(word)
+        )));
+        queries.put("4 palindromes", () -> lines.stream().filter(word -> isPalindrome(word)).toList());
+        queries.put("5 vowels", () -> lines.stream().collect(Collectors.toMap(
+                word -> word,
+                word -> vowelsInWord(word)
+        )));
+        queries.put("6 aStartZEnd", () -> lines.stream()
+                .filter(word -> word.charAt(0) == 'a' && word.charAt(word.length() - 1) == 'z').toList());
+        queries.put("7 longest", () -> lines.stream().min((a, b) -> b.length() - a.length()).get());
+        return queries;
+    }
+
+    static Map<String, Supplier<Object>> movies(List<Movie> movies) {
+        Map<String, Supplier<Object>> queries = new LinkedHashMap<>();
+        queries.put("1 moviesPerDirector", () -> movies.stream()
+                .flatMap(movie -> movie.directors().stream())
+                .collect(Collectors.groupingBy(
+                        director -> director.name(),
+                        Collectors.counting()
+                )));
+        queries.put("2 genresPerDirector", () -> movies.stream()
+                .flatMap(movie -> movie.directors().stream()).distinct()
+                .collect(Collectors.toMap(
+                        director -> director.name(),
+                        director -> movies.stream()
+                                .filter(movie -> movie.directors().contains(director))
+                                .flatMap(m -> m.genres().stream())
+                                .distinct().count()
+                )));
+        queries.put("3 dramaComedia", () -> movies.stream()
+                .filter(movie -> movie.genres().size() == 2)
+                .filter(movie -> movie.genres().stream()
+                        .allMatch(genre -> genre.name().equals("Drama") || genre.name().equals("Comedia")))
+                .map(Movie::title)
+                .toList());
+        queries.put("4 moviesPerYear", () -> movies.stream().collect(Collectors.groupingBy(
+                Movie::year,
+                Collectors.counting()
+        )));
+        queries.put("5 peakYear", () -> movies.stream().collect(Collectors.groupingBy(
+                        Movie::year,
+                        Collectors.counting()
+                )).entrySet().stream()
+                .max((a, b) -> a.getValue().compareTo(b.getValue()))
+                .get()
+                .getKey());
+        return queries;
+    }
+
+    static Map<String, Supplier<Object>> countries(List<Country> countries) {
+        Map<String, Supplier<Object>> queries = new LinkedHashMap<>();
+        queries.put("1 mostPopulatedCityOfContinent", () -> countries.stream()
+                .map(Country::continent)
+                .distinct()
+                .collect(Collectors.toMap(
+                        continent -> continent,
+                        continent -> countries.stream()
+                                .filter(country -> country.continent().equals(continent))
+                                .flatMap(country -> country.cities().stream())
+                                .max((a, b) -> a.population() - b.population())
+                                .get()
+                                .name()
+                )));
+        queries.put("2 mostPopulatedCapital", () -> countries.stream()
+                .flatMap(country -> country.cities().stream()
+                        .filter(city -> city.id() == country.capital()))
+                .max((a, b) -> a.population() - b.population()).get().name());
+        queries.put("3 mostPopulatedCapitalOfContinent", () -> countries.stream().map(Country::continent)
+                .distinct()
+                .collect(Collectors.toMap(
+                        continent -> continent,
+                        continent -> countries.stream()
+                                .filter(country -> country.continent().equals(continent))
+                                .flatMap(country -> country.cities().stream()
+                                        .filter(city -> city.id() == country.capital()))
+                                .max((a, b) -> a.population() - b.population())
+                                .get().name()
+                )));
+        queries.put("4 citiesPerCountry", () -> countries.stream()
+                .collect(Collectors.toMap(
+                        country -> country.name(),
+                        country -> countries.stream()
+                                .filter(c -> c.equals(country))
+                                .flatMap(c -> c.cities().stream())
+                                .count()
+                )).entrySet().stream()
+                .sorted((a, b) -> b.getValue().compareTo(a.getValue())).toList());
+        queries.put("5 byDensity", () -> countries.stream()
+                .sorted((a, b) -> (int) ((b.population() / b.surfaceArea()) - (a.population() / a.surfaceArea())))
+                .map(Country::name).toList());
+        queries.put("6 richestCountryByContinent", () -> countries.stream()
+                .map(Country::continent)
+                .distinct()
+                .collect(Collectors.toMap(
+                        continent -> continent,
+                        continent -> countries.stream()
+                                .filter(c -> c.continent().equals(continent))
+                                .max((a, b) -> (int) (a.gnp() - b.gnp()))
+                                .get().name()
+                )));
+        queries.put("7 populationStatistics", () -> countries.stream()
+                .mapToInt(Country::population).summaryStatistics());
+        queries.put("8 populationStatisticsByContinent", () -> countries.stream()
+                .map(Country::continent)
+                .distinct()
+                .collect(Collectors.toMap(
+                        continent -> continent,
+                        continent -> countries.stream()
+                                .filter(c -> c.continent().equals(continent))
+                                .mapToInt(Country::population).summaryStatistics()
+                )));
+        queries.put("9 populationExtremes", () -> countries.stream()
+                .filter(country -> country.name().equals(
+                                countries.stream().min((a, b) -> a.population() - b.population()).get().name()
+                        ) || country.name().equals(
+                                countries.stream().max((a, b) -> a.population() - b.population()).get().name())
+                )
+                .map(Country::name).toList());
+        queries.put("10 populationExtremesByContinent", () -> countries.stream().map(Country::continent).distinct()
+                .collect(Collectors.toMap(
+                        continent -> continent,
+                        continent -> countries.stream()
+                                .filter(c -> c.continent().equals(continent))
+                                .filter(country -> country.name().equals(
+                                                countries.stream()
+                                                        .filter(c -> c.continent().equals(continent))
+                                                        .min((a, b) -> a.population() - b.population())
+                                                        .get().name()
+                                        ) || country.name().equals(
+                                                countries.stream()
+                                                        .filter(c -> c.continent().equals(continent))
+                                                        .max((a, b) -> a.population() - b.population())
+                                                        .get().name())
+                                )
+                                .map(Country::name).toList()
+                )));
+        queries.put("11 byCitiesByContinent", () -> countries.stream()
+                .map(Country::continent)
+                .distinct()
+                .collect(Collectors.toMap(
+                        continent -> continent,
+                        continent -> countries.stream()
+                                .filter(country -> country.continent().equals(continent))
+                                .sorted((a, b) -> a.cities().size() - b.cities().size())
+                                .map(Country::name)
+                                .toList()
+                )));
+        queries.put("12 cityExtremesByCountry", () -> countries.stream().collect(Collectors.toMap(
+                        country -> country.name(),
+                        country -> country.cities().stream()
+                                .filter(city ->
+                                        city.name().equals(country.cities().stream()
+                                                .max((a, b) -> a.population() - b.population()).get().name()) ||
+                                                city.name().equals(country.cities().stream()
+                                                        .min((a, b) -> a.population() - b.population()).get().name())
+                                ).map(Country.City::name).toList()
+                )
+        ));
+        queries.put("13 gnpStatistics", () -> countries.stream().mapToDouble(Country::gnp).summaryStatistics());
+        return queries;
+    }
+
+    static Map<String, Supplier<Object>> animals(List<Animal> animals) {
+        Map<String, Supplier<Object>> queries = new LinkedHashMap<>();
+        queries.put("1-2 byPet", () -> List.of(
+                animals.stream().filter(animal -> !(animal instanceof Pet)).toList(),
+                animals.stream().filter(animal -> animal instanceof Pet).toList()));
+        queries.put("3 mostLegged", () -> animals.stream().max((a, b) -> a.legs() - b.legs()).get());
+        queries.put("4 hundredAtRandom", () -> animals.stream()
+                .sorted((a, b) -> new Random().nextInt())
+                .limit(100)
+                .toList());
+        queries.put("5 totalLegs", () -> animals.stream().mapToInt(Animal::legs).sum());
+        queries.put("6 byLegs", () -> animals.stream().collect(Collectors.groupingBy(
+                Animal::legs
+        )));
+        queries.put("7 perSpecies", () -> animals.stream().collect(Collectors.groupingBy(
+                animal -> animal.getClass().getSimpleName(),
+                Collectors.counting()
+        )));
+        queries.put("8 numberOfSpecies", () -> animals.stream().collect(Collectors.groupingBy(
+                animal -> animal.getClass()
+        )).size());
+        return queries;
+    }
+
+    static int vowelsInWord(String word) {
+        Set<Character> vowels = Set.of('a', 'e', 'i', 'o', 'u');
+        int numberOfVowels = 0;
+        for (int i = 0; i < word.length(); i++) if (vowels.contains(word.charAt(i))) numberOfVowels++;
+        return numberOfVowels;
+    }
+
+    private static boolean isPalindrome(String word) {
+        for (int i = 0; i < word.length(); i++) if (word.charAt(i) != word.charAt(word.length() - 1 - i)) return false;
+        return true;
+    }
+
+    private static String getFirstLetters(String word) {
+        if (word.length() < 4) return word;
+        return word.substring(0, 3);
+    }
+}
@@ -0,0 +1,671 @@
+import com.sun.management.ThreadMXBean;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.IntSummaryStatistics;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import animals.*;
+import pets.*;
+
+// Mediciones de las optimizaciones: tiempo por operación y bytes reservados por el
+// hilo que mide. Sin argumentos ejecuta todas las secciones; si no, solo las indicadas.
+public class Benchmark {
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final int WARMUP = 5;
+    private static final int ROUNDS = 10;
+    private static Set<String> sections;
+    private static long blackhole;
+
+    public static void main(String[] args) throws Exception {
+        sections = Set.of(args);
+
+        if (selected("kernels")) textKernels();
+        if (selected("vowelcounts")) vowelCounts();
+        if (selected("parallel")) parallelScan();
+        if (selected("genres")) genreMasks();
+        if (selected("years")) yearHistogram();
+        if (selected("loader")) movieLoader();
+        if (selected("countries")) countryIndex();
+        if (selected("statistics")) statistics();
+        if (selected("scale")) countryScale();
+        if (selected("sampling")) sampling();
+        if (selected("species")) species();
+        if (selected("herd")) herd();
+        if (selected("suite")) suite();
+        if (selected("metrics")) metrics();
+        if (selected("cache")) cache();
+
+        System.out.println("blackhole " + blackhole);
+    }
+
+    private static boolean selected(String section) {
+        return sections.isEmpty() || sections.contains(section);
+    }
+
+    /// TEXT KERNELS
+    private static void textKernels() {
+        List<String> words = randomWords(1_000_000, 42);
+
+        measure("vowels (Set<Character>)", words.size(), () -> {
+            for (String word : words) blackhole += Baselines.vowelsInWord(word);
+        });
+        measure("vowels (TextKernels)", words.size(), () -> {
+            for (String word : words) blackhole += TextKernels.vowels(word);
+        });
+        measure("isPalindrome (TextKernels)", words.size(), () -> {
+            for (String word : words) if (TextKernels.isPalindrome(word)) blackhole++;
+        });
+
+        ByteBuffer utf8 = ByteBuffer.wrap(String.join("\n", words).getBytes(StandardCharsets.UTF_8));
+        measure("vowels (UTF-8 bulk)", words.size(), () -> blackhole += TextKernels.vowels(utf8.duplicate()).length);
+    }
+
+    /// VOWEL COUNTS
+    private static void vowelCounts() {
+        List<String> words = randomWords(1_000_000, 7);
+        ByteBuffer bytes = ByteBuffer.wrap(String.join("\n", words).getBytes(StandardCharsets.UTF_8));
+        WordIndex index = WordIndex.build(Dictionary.index(bytes));
+
+        long map = footprint(() -> words.stream().distinct().collect(Collectors.toMap(
+                word -> word,
+                TextKernels::vowels
+        )));
+        long array = footprint(() -> VowelCounts.build(index));
+        System.out.printf("%-40s %12d B%n", "Map<String, Integer>", map);
+        System.out.printf("%-40s %12d B%n", "VowelCounts", array);
+        System.out.printf("%-40s %12.1fx%n", "ratio", (double) map / array);
+    }
+
+    /// PARALLEL SCAN
+    private static void parallelScan() throws IOException, InterruptedException, ExecutionException {
+        Path file = Files.createTempFile("palabras", ".txt");
+        try {
+            Files.write(file, randomWords(2_000_000, 11), StandardCharsets.UTF_8);
+            long size = Files.size(file);
+            int processors = Runtime.getRuntime().availableProcessors();
+            // Potencias de dos y, si no lo es, el número real de núcleos.
+            TreeSet<Integer> counts = new TreeSet<>();
+            for (int threads = 1; threads <= processors; threads *= 2) counts.add(threads);
+            counts.add(processors);
+            for (int threads : counts) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    Callable<Map<CharSequence, List<CharSequence>>> query = () -> Dictionary.scan(file, true)
+                            .collect(Collectors.groupingByConcurrent(TextKernels::firstLetters));
+                    for (int i = 0; i < WARMUP; i++) pool.submit(query).get();
+                    long start = System.nanoTime();
+                    for (int i = 0; i < ROUNDS; i++) blackhole += pool.submit(query).get().size();
+                    double seconds = (System.nanoTime() - start) / 1e9 / ROUNDS;
+                    System.out.printf("%-40s %12.1f MB/s%n", "scan + groupingByConcurrent, " + threads + " threads",
+                            size / seconds / 1e6);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /// GENRE MASKS
+    private static void genreMasks() {
+        List<Movie> movies = randomMovies(1_000_000, 3);
+        MovieIndex index = MovieIndex.build(movies);
+        GenreSet dramaComedia = index.genreSet(index.genre("Drama"), index.genre("Comedia"));
+
+        measure("exactly {0, 1} (stream + equals)", movies.size(), () -> blackhole += movies.stream()
+                .filter(movie -> movie.genres().size() == 2)
+                .filter(movie -> movie.genres().stream()
+                        .allMatch(genre -> genre.name().equals("Drama") || genre.name().equals("Comedia")))
+                .count());
+        measure("exactly {0, 1} (MovieIndex)", movies.size(), () -> blackhole += index.exactly(dramaComedia).size());
+        measure("withAny {0, 1} (MovieIndex)", movies.size(), () -> blackhole += index.withAny(dramaComedia).size());
+    }
+
+    /// YEAR HISTOGRAM
+    private static void yearHistogram() {
+        List<Movie> movies = randomMovies(1_000_000, 5);
+        MovieTable table = MovieTable.from(movies);
+
+        measure("peak year (groupingBy + counting)", movies.size(), () -> blackhole += movies.stream()
+                .collect(Collectors.groupingBy(Movie::year, Collectors.counting()))
+                .entrySet().stream()
+                .max((a, b) -> a.getValue().compareTo(b.getValue()))
+                .get().getKey());
+        measure("peak year (MovieTable)", movies.size(), () -> blackhole += table.peakYear(false));
+        measure("peak year (MovieTable, parallel)", movies.size(), () -> blackhole += table.peakYear(true));
+    }
+
+    /// MOVIE LOADER
+    private static void movieLoader() throws IOException {
+        Path file = Files.createTempFile("peliculas", ".csv");
+        try {
+            MovieLoader.write(file, randomMovies(1_000_000, 13));
+            for (boolean parallel : new boolean[]{false, true}) {
+                for (int i = 0; i < WARMUP; i++) new MovieLoader().load(file, parallel);
+                MovieLoader.Result result = new MovieLoader().load(file, parallel);
+                blackhole += result.movies().size();
+                System.out.printf("%-40s %12.0f rows/s%n", "MovieLoader" + (parallel ? " (parallel)" : ""),
+                        result.rowsPerSecond());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /// COUNTRY INDEX
+    private static void countryIndex() {
+        List<Country> countries = randomCountries(100_000, 17);
+
+        measure("continent queries (distinct + toMap)", countries.size(), () -> {
+            for (String continent : countries.stream().map(Country::continent).distinct().toList()) {
+                blackhole += countries.stream()
+                        .filter(country -> country.continent().equals(continent))
+                        .flatMap(country -> country.cities().stream())
+                        .max((a, b) -> a.population() - b.population())
+                        .get().id();
+                blackhole += countries.stream()
+                        .filter(country -> country.continent().equals(continent))
+                        .flatMap(country -> country.cities().stream()
+                                .filter(city -> city.id() == country.capital()))
+                        .max((a, b) -> a.population() - b.population())
+                        .get().id();
+                blackhole += countries.stream()
+                        .filter(c -> c.continent().equals(continent))
+                        .max((a, b) -> (int) (a.gnp() - b.gnp()))
+                        .get().capital();
+                blackhole += countries.stream()
+                        .filter(c -> c.continent().equals(continent))
+                        .mapToInt(Country::population).summaryStatistics().getMax();
+                blackhole += countries.stream()
+                        .filter(country -> country.continent().equals(continent))
+                        .sorted((a, b) -> a.cities().size() - b.cities().size())
+                        .findFirst().get().capital();
+            }
+        });
+        measure("continent queries (CountryIndex)", countries.size(), () -> {
+            CountryIndex index = CountryIndex.build(countries);
+            for (String continent : index.continentNames()) {
+                CountryIndex.Continent summary = index.continent(continent);
+                blackhole += summary.mostPopulatedCity().id() + summary.mostPopulatedCapital().id()
+                        + summary.richest().capital() + (long) summary.population().max()
+                        + summary.byCities().get(0).capital();
+            }
+        });
+
+        // La consulta de extremos recalcula mínimo y máximo por cada país: cuadrática,
+        // así que se mide sobre menos países.
+        List<Country> fewer = countries.subList(0, 10_000);
+        measure("population extremes (nested streams)", fewer.size(), () -> {
+            for (String continent : fewer.stream().map(Country::continent).distinct().toList()) {
+                blackhole += fewer.stream()
+                        .filter(c -> c.continent().equals(continent))
+                        .filter(country -> country.name().equals(
+                                fewer.stream()
+                                        .filter(c -> c.continent().equals(continent))
+                                        .min((a, b) -> a.population() - b.population())
+                                        .get().name()
+                        ) || country.name().equals(
+                                fewer.stream()
+                                        .filter(c -> c.continent().equals(continent))
+                                        .max((a, b) -> a.population() - b.population())
+                                        .get().name()))
+                        .count();
+            }
+        });
+        measure("population extremes (CountryIndex)", fewer.size(), () -> blackhole += CountryIndex.build(fewer)
+                .map(continent -> continent.populationExtremes().size()).size());
+    }
+
+    /// STATISTICS
+    private static void statistics() {
+        List<Country> countries = randomCountries(1_000_000, 19);
+
+        measure("gnp summaryStatistics()", countries.size(), () -> blackhole += (long) countries.stream()
+                .mapToDouble(Country::gnp).summaryStatistics().getAverage());
+        measure("gnp Statistics", countries.size(), () -> blackhole += (long) countries.stream()
+                .collect(Statistics.collector(Country::gnp)).standardDeviation());
+        measure("gnp Statistics (parallel)", countries.size(), () -> blackhole += (long) countries.parallelStream()
+                .collect(Statistics.collector(Country::gnp)).standardDeviation());
+        measure("population by continent summaryStatistics()", countries.size(), () -> blackhole += countries.stream()
+                .collect(Collectors.groupingBy(Country::continent,
+                        Collectors.summarizingInt(Country::population))).size());
+        measure("population by continent Statistics", countries.size(), () -> blackhole += countries.stream()
+                .collect(Collectors.groupingBy(Country::continent,
+                        Statistics.collector(Country::population))).size());
+    }
+
+    /// COUNTRY SCALE
+    // Todas las consultas de países sobre mundos cada vez mayores; el máximo de ciudades
+    // se cambia con -Dscale.cities (por defecto 10^6; 10^7 necesita unos cuantos GB de heap).
+    private static void countryScale() {
+        int maxCities = Integer.getInteger("scale.cities", 1_000_000);
+        for (int cities = 1_000; cities <= maxCities; cities *= 10) {
+            List<Country> world = WorldGenerator.generate(WorldGenerator.Config.ofCities(cities, 23));
+            System.out.println("-- " + world.size() + " countries, " + cities + " cities (per city)");
+            measure("build CountryQueries", cities, () -> blackhole += System.identityHashCode(new CountryQueries(world)));
+            for (Map.Entry<String, Supplier<Object>> query : new CountryQueries(world).all().entrySet())
+                measure(query.getKey(), cities, () -> blackhole += System.identityHashCode(query.getValue().get()));
+        }
+    }
+
+    /// SAMPLING
+    private static void sampling() {
+        List<Animal> herd = randomAnimals(1_000_000, 29);
+        List<Animal> smallHerd = herd.subList(0, 100_000);
+
+        // El comparador aleatorio incumple el contrato de Comparator: TimSort puede lanzar
+        // IllegalArgumentException, que se cuenta en vez de abortar la medición.
+        int[] contractViolations = new int[1];
+        measure("100 of 100k (random comparator)", smallHerd.size(), () -> {
+            try {
+                blackhole += smallHerd.stream().sorted((a, b) -> new Random().nextInt()).limit(100).toList().size();
+            } catch (IllegalArgumentException e) {
+                contractViolations[0]++;
+            }
+        });
+        System.out.println("  comparison contract violations: " + contractViolations[0]);
+        measure("100 of 100k (Reservoir)", smallHerd.size(), () -> blackhole += smallHerd.stream()
+                .collect(Reservoir.collector(100, 1)).size());
+        measure("100 of 1M (Reservoir)", herd.size(), () -> blackhole += herd.stream()
+                .collect(Reservoir.collector(100, 1)).size());
+        measure("100 of 1M (Reservoir, parallel)", herd.size(), () -> blackhole += herd.parallelStream()
+                .collect(Reservoir.collector(100, 1)).size());
+        measure("10 per class of 1M (stratified)", herd.size(), () -> blackhole += herd.stream()
+                .collect(Reservoir.stratified(Object::getClass, 10, 1)).size());
+    }
+
+    /// SPECIES
+    private static void species() {
+        List<Animal> herd = randomAnimals(1_000_000, 31);
+
+        measure("per species (getSimpleName + counting)", herd.size(), () -> blackhole += herd.stream()
+                .collect(Collectors.groupingBy(animal -> animal.getClass().getSimpleName(), Collectors.counting()))
+                .size());
+        measure("per species (Species.counts)", herd.size(), () -> blackhole += Species.counts(herd).length);
+        measure("per legs (groupingBy)", herd.size(), () -> blackhole += herd.stream()
+                .collect(Collectors.groupingBy(Animal::legs)).size());
+        measure("per legs (Species.byLegs)", herd.size(), () -> blackhole += Species.byLegs(herd).size());
+    }
+
+    /// HERD
+    private static void herd() {
+        List<Animal> animals = randomAnimals(1_000_000, 37);
+        Herd herd = Herd.of(animals);
+
+        System.out.printf("%-40s %12d bytes%n", "List<Animal> footprint", footprint(() -> randomAnimals(1_000_000, 37)));
+        System.out.printf("%-40s %12d bytes%n", "Herd footprint", footprint(() -> Herd.of(animals)));
+        measure("total legs (mapToInt(legs).sum())", animals.size(), () -> blackhole += animals.stream()
+                .mapToInt(Animal::legs).sum());
+        measure("total legs (Herd)", animals.size(), () -> blackhole += herd.totalLegs(false));
+        measure("total legs (Herd, parallel)", animals.size(), () -> blackhole += herd.totalLegs(true));
+        measure("most legged (max by legs)", animals.size(), () -> blackhole += animals.stream()
+                .max(Comparator.comparingInt(Animal::legs)).get().legs());
+        measure("most legged (Herd)", animals.size(), () -> blackhole += herd.mostLegged(false));
+        measure("legs histogram (groupingBy + counting)", animals.size(), () -> blackhole += animals.stream()
+                .collect(Collectors.groupingBy(Animal::legs, Collectors.counting())).size());
+        measure("legs histogram (Herd)", animals.size(), () -> blackhole += herd.legsHistogram(false).length);
+    }
+
+    /// SUITE
+    // Cada consulta de Main, original (Baselines), optimizada y optimizada contando la
+    // construcción de sus índices, sobre datos generados de varios tamaños; los tamaños se
+    // cambian con -Dsuite.sizes=1000,10000,... Antes de medir se comprueba que la original y
+    // la optimizada dan el mismo resultado (las de DIFFERENCES, que la optimizada cumple su
+    // referencia); si alguna no coincide la suite termina con error. Las originales que
+    // fallan (comparadores que incumplen el contrato, por ejemplo) se indican en vez de
+    // medirse.
+    private static void suite() {
+        int disagreements = 0;
+        for (String size : System.getProperty("suite.sizes", "1000,10000").split(",")) {
+            int n = Integer.parseInt(size.trim());
+            for (String domain : DOMAINS) disagreements += suite(domain, n, queries(domain, n));
+        }
+        if (disagreements > 0)
+            throw new IllegalStateException(disagreements + " queries disagree with their baseline or reference");
+    }
+
+    static final List<String> DOMAINS = List.of("dictionary", "movies", "countries", "animals");
+
+    // Consultas en las que el resultado optimizado difiere a propósito del original. No se
+    // comparan con él sino con una referencia (Suite.references): el original con la misma
+    // diferencia aplicada o, si el resultado es aleatorio, las propiedades que debe cumplir.
+    private static final Map<String, String> DIFFERENCES = Map.of(
+            "dictionary/5 vowels", "also counts accented and upper-case vowels",
+            "countries/5 byDensity", "exact densities, without unpopulated countries",
+            "animals/4 hundredAtRandom", "random sample");
+
+    // Consultas de Main y originales sobre los mismos datos, y las referencias de las
+    // consultas de DIFFERENCES del dominio: si aceptan el resultado optimizado. Las
+    // optimizadas trabajan sobre índices ya construidos; withBuild son las mismas
+    // construyéndolos antes desde los datos en cada llamada, lo que cuesta una consulta
+    // suelta.
+    public record Suite(Map<String, Supplier<Object>> optimized, Map<String, Supplier<Object>> withBuild,
+                        Map<String, Supplier<Object>> baseline, Map<String, Predicate<Object>> references) {
+        static Suite of(Supplier<Map<String, Supplier<Object>>> build, Map<String, Supplier<Object>> baseline,
+                        Map<String, Predicate<Object>> references) {
+            Map<String, Supplier<Object>> optimized = build.get();
+            Map<String, Supplier<Object>> withBuild = new LinkedHashMap<>();
+            for (String query : optimized.keySet()) withBuild.put(query, () -> build.get().get(query).get());
+            return new Suite(optimized, withBuild, baseline, references);
+        }
+    }
+
+    // Consultas de un dominio sobre datos generados de n elementos. También es el punto de
+    // entrada de los benchmarks JMH (jmh/).
+    public static Suite queries(String domain, int n) {
+        switch (domain) {
+            case "dictionary" -> {
+                // Desordenadas y con repetidas (una de cada diez, además de las que salgan al
+                // azar): las consultas tienen que devolverlas en el orden de la lista.
+                List<String> words = new ArrayList<>(randomWords(n, 41));
+                words.addAll(words.subList(0, n / 10));
+                Collections.shuffle(words, new Random(41));
+                // Las vocales de cada palabra contadas sobre el String con TextKernels, sin
+                // pasar por el snapshot.
+                return Suite.of(() -> DictionaryQueries.of(words).all(), Baselines.dictionary(words), Map.of(
+                        "5 vowels", result -> result instanceof VowelCounts counts && counts.size() == words.size()
+                                && words.stream().allMatch(word -> counts.count(word) == TextKernels.vowels(word))));
+            }
+            case "movies" -> {
+                List<Movie> movies = randomMovies(n, 43);
+                return Suite.of(() -> new MovieQueries(movies).all(), Baselines.movies(movies), Map.of());
+            }
+            case "countries" -> {
+                List<Country> countries = WorldGenerator.generate(new WorldGenerator.Config(n, n * 20, 7, 1, 47));
+                // Orden estable por densidad exacta, de mayor a menor, sin los países sin población.
+                List<String> byDensity = countries.stream().filter(country -> country.population() > 0)
+                        .sorted(Comparator.comparingDouble((Country country) -> country.population() / country.surfaceArea())
+                                .reversed())
+                        .map(Country::name).toList();
+                return Suite.of(() -> new CountryQueries(countries).all(), Baselines.countries(countries),
+                        Map.of("5 byDensity", result -> agree(result, byDensity)));
+            }
+            case "animals" -> {
+                List<Animal> animals = randomAnimals(n, 53);
+                // Una muestra: min(100, n) animales distintos, todos de la lista.
+                Set<Animal> herd = Collections.newSetFromMap(new IdentityHashMap<>());
+                herd.addAll(animals);
+                return Suite.of(() -> new AnimalQueries(animals).all(), Baselines.animals(animals), Map.of(
+                        "4 hundredAtRandom", result -> {
+                            if (!(result instanceof List<?> sample) || sample.size() != Math.min(100, animals.size()))
+                                return false;
+                            Set<Object> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+                            distinct.addAll(sample);
+                            return distinct.size() == sample.size() && herd.containsAll(distinct);
+                        }));
+            }
+            default -> throw new IllegalArgumentException("Unknown domain: " + domain);
+        }
+    }
+
+    private static int suite(String domain, int size, Suite suite) {
+        System.out.println("-- " + domain + ", " + size + " elements");
+        int disagreements = 0;
+        for (String query : suite.optimized().keySet()) {
+            Supplier<Object> optimized = suite.optimized().get(query);
+            Supplier<Object> baseline = suite.baseline().get(query);
+            if (!check(domain + "/" + query, optimized, baseline, suite.references().get(query))) disagreements++;
+            suiteQuery(query + " (baseline)", size, baseline);
+            suiteQuery(query, size, optimized);
+            suiteQuery(query + " (with build)", size, suite.withBuild().get(query));
+        }
+        return disagreements;
+    }
+
+    // Una original que falla sin referencia no deja comprobar la optimizada: cuenta como
+    // desacuerdo.
+    private static boolean check(String name, Supplier<Object> optimized, Supplier<Object> baseline,
+                                 Predicate<Object> reference) {
+        String reason = DIFFERENCES.get(name);
+        String problem;
+        if (reason != null) {
+            if (reference == null) throw new IllegalStateException("No reference for " + name);
+            problem = reference.test(optimized.get()) ? null : "DISAGREES with its reference (" + reason + ")";
+        } else {
+            try {
+                problem = agree(optimized.get(), baseline.get()) ? null : "DISAGREES with baseline";
+            } catch (RuntimeException e) {
+                problem = "cannot be checked, baseline failed: " + e;
+            }
+        }
+        if (problem != null) System.out.printf("%-40s %s%n", name, problem);
+        return problem == null;
+    }
+
+    // Compara un resultado optimizado con el original pasando los dos a tipos comunes:
+    // texto, Long o Double (con tolerancia), listas y mapas. Las listas de entradas son
+    // rankings: basta con el mismo conjunto y la misma secuencia de valores, porque los
+    // empates pueden salir en cualquier orden.
+    static boolean agree(Object optimized, Object baseline) {
+        if (optimized instanceof VowelCounts counts && baseline instanceof Map<?, ?> map)
+            return counts.size() == map.size() && map.entrySet().stream()
+                    .allMatch(e -> agree(counts.count((CharSequence) e.getKey()), e.getValue()));
+        Object a = canonical(optimized);
+        Object b = canonical(baseline);
+        if (a instanceof Double x && b instanceof Double y)
+            return Math.abs(x - y) <= 1e-9 * Math.max(1, Math.max(Math.abs(x), Math.abs(y)));
+        if (a instanceof List<?> x && b instanceof List<?> y) {
+            if (x.size() != y.size()) return false;
+            if (!x.isEmpty() && x.get(0) instanceof Map.Entry && y.get(0) instanceof Map.Entry)
+                return agree(entries(x), entries(y))
+                        && agree(x.stream().map(entry -> ((Map.Entry<?, ?>) entry).getValue()).toList(),
+                                 y.stream().map(entry -> ((Map.Entry<?, ?>) entry).getValue()).toList());
+            for (int i = 0; i < x.size(); i++) if (!agree(x.get(i), y.get(i))) return false;
+            return true;
+        }
+        if (a instanceof Map<?, ?> x && b instanceof Map<?, ?> y) {
+            if (x.size() != y.size()) return false;
+            for (Map.Entry<?, ?> entry : x.entrySet())
+                if (!y.containsKey(entry.getKey()) || !agree(entry.getValue(), y.get(entry.getKey()))) return false;
+            return true;
+        }
+        return Objects.equals(a, b);
+    }
+
+    private static Map<Object, Object> entries(List<?> entries) {
+        Map<Object, Object> map = new HashMap<>();
+        for (Object entry : entries) map.put(canonical(((Map.Entry<?, ?>) entry).getKey()), ((Map.Entry<?, ?>) entry).getValue());
+        return map;
+    }
+
+    private static Object canonical(Object value) {
+        if (value instanceof CharSequence text) return text.toString();
+        if (value instanceof Double || value instanceof Float) return ((Number) value).doubleValue();
+        if (value instanceof Number number) return number.longValue();
+        if (value instanceof Statistics statistics)
+            return List.of(statistics.count(), statistics.min(), statistics.max(), statistics.sum());
+        if (value instanceof IntSummaryStatistics statistics)
+            return List.of(statistics.getCount(), (double) statistics.getMin(), (double) statistics.getMax(),
+                    (double) statistics.getSum());
+        if (value instanceof DoubleSummaryStatistics statistics)
+            return List.of(statistics.getCount(), statistics.getMin(), statistics.getMax(), statistics.getSum());
+        Map<Object, Object> map = new HashMap<>();
+        if (value instanceof MovieTable.YearHistogram histogram) {
+            for (int i = 0; i < histogram.years().length; i++) map.put((long) histogram.years()[i], histogram.counts()[i]);
+            return map;
+        }
+        if (value instanceof PrefixBuckets buckets) {
+            for (int group = 0; group < buckets.groups(); group++) map.put(buckets.prefix(group), buckets.group(group));
+            return map;
+        }
+        if (value instanceof Map<?, ?> values) {
+            // Un partitioningBy equivale a la pareja [false, true].
+            if (values.size() == 2 && values.containsKey(false) && values.containsKey(true))
+                return Arrays.asList(values.get(false), values.get(true));
+            values.forEach((key, element) -> map.put(canonical(key), element));
+            return map;
+        }
+        return value;
+    }
+
+    private static void suiteQuery(String name, int size, Supplier<Object> query) {
+        try {
+            // Con pocos elementos WARMUP rondas no bastan para que el JIT compile la consulta.
+            long warm = System.nanoTime() + 200_000_000;
+            do blackhole += System.identityHashCode(query.get()); while (System.nanoTime() < warm);
+            measure(name, size, () -> blackhole += System.identityHashCode(query.get()));
+        } catch (RuntimeException e) {
+            System.out.printf("%-40s failed: %s%n", name, e);
+        }
+    }
+
+    /// METRICS
+    // Coste de la instrumentación en una consulta barata y en una cara: sin registro
+    // (lo normal), con él y otra vez sin él, porque la primera pasada todavía paga el JIT.
+    private static void metrics() {
+        AnimalQueries animals = new AnimalQueries(randomAnimals(1_000, 53));
+        CountryQueries countries = new CountryQueries(randomCountries(1_000, 47));
+        boolean enabled = QueryMetrics.isEnabled();
+        for (boolean on : new boolean[]{false, true, false}) {
+            QueryMetrics.setEnabled(on);
+            String suffix = on ? " (metrics)" : "";
+            measure("totalLegs" + suffix, 100_000, () -> {
+                for (int i = 0; i < 100_000; i++) blackhole += animals.totalLegs();
+            });
+            measure("citiesPerCountry" + suffix, 1_000, () -> {
+                for (int i = 0; i < 1_000; i++) blackhole += countries.citiesPerCountry().size();
+            });
+        }
+        QueryMetrics.setEnabled(enabled);
+        QueryMetrics.reset();
+    }
+
+    /// QUERY CACHE
+    // Todas las consultas de países muchas veces seguidas: sin caché, con caché y con
+    // caché pero con datos nuevos (otro CountryQueries) cada diez veces.
+    private static void cache() {
+        List<Country> world = randomCountries(1_000, 47);
+        CountryQueries uncached = new CountryQueries(world);
+        measure("country queries (no cache)", 13 * 100, () -> {
+            for (int i = 0; i < 100; i++) runAll(uncached.all());
+        });
+        QueryCache cache = new QueryCache(64);
+        CountryQueries cached = new CountryQueries(world, cache);
+        // Un acierto cuesta tan poco que cien vueltas no dan para que el JIT compile.
+        measure("country queries (cache)", 13 * 10_000, () -> {
+            for (int i = 0; i < 10_000; i++) runAll(cached.all());
+        });
+        System.out.println(cache);
+        QueryCache versioned = new QueryCache(64);
+        measure("country queries (cache, new data / 10)", 13 * 100, () -> {
+            CountryQueries queries = null;
+            for (int i = 0; i < 100; i++) {
+                if (i % 10 == 0) queries = new CountryQueries(world, versioned);
+                runAll(queries.all());
+            }
+        });
+        System.out.println(versioned);
+    }
+
+    private static void runAll(Map<String, Supplier<Object>> queries) {
+        for (Supplier<Object> query : queries.values()) blackhole += System.identityHashCode(query.get());
+    }
+
+    static List<String> randomWords(int count, long seed) {
+        Random random = new Random(seed);
+        String letters = "aaabcdeeefghiiijlmnñooopqrstuuuvxyzáéíóú";
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            char[] word = new char[2 + random.nextInt(12)];
+            for (int j = 0; j < word.length; j++) word[j] = letters.charAt(random.nextInt(letters.length()));
+            words[i] = new String(word);
+        }
+        return Arrays.asList(words);
+    }
+
+    // Memoria retenida por el resultado: heap ocupado tras un GC, antes y después de construirlo.
+    static long footprint(Supplier<Object> builder) {
+        long before = usedHeap();
+        Object result = builder.get();
+        long after = usedHeap();
+        blackhole += System.identityHashCode(result);
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    static List<Movie> randomMovies(int count, long seed) {
+        Random random = new Random(seed);
+        Movie.Genre[] genres = new Movie.Genre[20];
+        for (int i = 0; i < genres.length; i++) genres[i] = new Movie.Genre(i, "Genre " + i);
+        // Los dos primeros con los nombres que usa la consulta 3 de películas.
+        genres[0] = new Movie.Genre(0, "Drama");
+        genres[1] = new Movie.Genre(1, "Comedia");
+        Movie.Director[] directors = new Movie.Director[Math.max(1, count / 20)];
+        for (int i = 0; i < directors.length; i++) directors[i] = new Movie.Director(i, "Director " + i, "nm" + i);
+        Movie[] movies = new Movie[count];
+        for (int i = 0; i < count; i++) {
+            List<Movie.Genre> movieGenres = random.ints(1 + random.nextInt(3), 0, genres.length).distinct()
+                    .mapToObj(g -> genres[g]).toList();
+            movies[i] = new Movie(i, "Movie " + i, 1950 + random.nextInt(75), "tt" + i, movieGenres,
+                    List.of(directors[random.nextInt(directors.length)]));
+        }
+        return Arrays.asList(movies);
+    }
+
+    static List<Animal> randomAnimals(int count, long seed) {
+        Random random = new Random(seed);
+        Animal[] animals = new Animal[count];
+        for (int i = 0; i < count; i++) {
+            animals[i] = switch (random.nextInt(10)) {
+                case 0 -> new Ant();
+                case 1 -> new Centipede();
+                case 2 -> new Frog();
+                case 3 -> new Kangaroo();
+                case 4 -> new Octopus();
+                case 5 -> new Cat("Cat " + i);
+                case 6 -> new Dog("Dog " + i);
+                case 7 -> new Hamster("Hamster " + i);
+                case 8 -> new Pig("Pig " + i);
+                default -> new Parrot("Parrot " + i);
+            };
+        }
+        return Arrays.asList(animals);
+    }
+
+    static List<Country> randomCountries(int count, long seed) {
+        return WorldGenerator.generate(new WorldGenerator.Config(count, count * 9 / 2, 7, 0, seed));
+    }
+
+    // Ejecuta el cuerpo WARMUP veces sin medir y ROUNDS veces midiendo; el resultado
+    // es la media por operación de tiempo y de bytes reservados.
+    static void measure(String name, long operations, Runnable body) {
+        for (int i = 0; i < WARMUP; i++) body.run();
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) body.run();
+        long elapsed = System.nanoTime() - start;
+        allocated = THREADS.getCurrentThreadAllocatedBytes() - allocated;
+        double perOperation = (double) ROUNDS * operations;
+        System.out.printf("%-40s %12.2f ns/op %12.2f B/op%n", name, elapsed / perOperation, allocated / perOperation);
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.BitSet;
+import java.util.List;
+
+// Todas las ciudades del mundo indexadas por id, junto con el país al que pertenecen,
+// construido en una sola pasada. Los ids son enteros pequeños, así que normalmente
+// basta con un array denso indexado por id; si están demasiado dispersos para eso se
+// usa una tabla de direccionamiento abierto con claves int (sondeo lineal), sin
+// encajar nada en Integer. Resolver una capital pasa de filtrar la lista de ciudades
+// de su país a una consulta O(1).
+//
+// Si un id se repite (en el mismo país o en varios) se queda la primera ciudad que se
+// vio y el hueco se marca; la capital de un id repetido se busca entre las ciudades de
+// su propio país, como hacía el filtro original (la más poblada si hay varias).
+public final class CityRegistry {
+    private final Country.City[] cities;
+    private final Country[] countries;
+    // Solo en modo disperso: id de la ciudad de cada hueco ocupado; null en modo denso.
+    private final int[] keys;
+    // Huecos cuyo id aparece más de una vez.
+    private final BitSet repeated = new BitSet();
+    private int size;
+
+    private CityRegistry(Country.City[] cities, Country[] countries, int[] keys) {
+        this.cities = cities;
+        this.countries = countries;
+        this.keys = keys;
+    }
+
+    public static CityRegistry build(List<Country> countries) {
+        int count = 0;
+        int maxId = -1;
+        boolean negative = false;
+        for (Country country : countries) {
+            for (Country.City city : country.cities()) {
+                count++;
+                maxId = Math.max(maxId, city.id());
+                negative |= city.id() < 0;
+            }
+        }
+        // Denso si el array no desperdicia más de ~4 huecos por ciudad.
+        boolean dense = !negative && maxId < 4L * count + 1024;
+        int capacity = dense ? maxId + 1 : Integer.highestOneBit(Math.max(2, count) * 2 - 1) * 2;
+        CityRegistry registry = new CityRegistry(new Country.City[capacity], new Country[capacity],
+                dense ? null : new int[capacity]);
+        for (Country country : countries)
+            for (Country.City city : country.cities()) registry.put(city, country);
+        return registry;
+    }
+
+    private void put(Country.City city, Country country) {
+        int slot = keys == null ? city.id() : probe(city.id());
+        if (cities[slot] != null) {
+            repeated.set(slot);
+            return;
+        }
+        if (keys != null) keys[slot] = city.id();
+        cities[slot] = city;
+        countries[slot] = country;
+        size++;
+    }
+
+    // Hueco del id en la tabla dispersa: el que lo contiene o el primero libre.
+    private int probe(int id) {
+        int mask = keys.length - 1;
+        int hash = id * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (cities[slot] != null && keys[slot] != id) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private int slot(int id) {
+        if (keys == null) return id >= 0 && id < cities.length ? id : -1;
+        int slot = probe(id);
+        return cities[slot] != null ? slot : -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Ciudad con ese id, o null si no existe.
+    public Country.City city(int id) {
+        int slot = slot(id);
+        return slot < 0 ? null : cities[slot];
+    }
+
+    // País al que pertenece la ciudad con ese id, o null si no existe.
+    public Country country(int cityId) {
+        int slot = slot(cityId);
+        return slot < 0 ? null : countries[slot];
+    }
+
+    // Capital del país, o null si su id no corresponde a una de sus propias ciudades.
+    public Country.City capital(Country country) {
+        int slot = slot(country.capital());
+        if (slot < 0) return null;
+        if (!repeated.get(slot)) return countries[slot] == country ? cities[slot] : null;
+        Country.City capital = null;
+        for (Country.City city : country.cities())
+            if (city.id() == country.capital() && (capital == null || city.population() > capital.population()))
+                capital = city;
+        return capital;
+    }
+}
@@ -0,0 +1,6 @@
+import java.util.List;
+
+public record Country(String code, String name, String continent, double surfaceArea,
+                      int population, double gnp, int capital, List<City> cities) {
+    public record City(int id, String name, int population) { }
+}
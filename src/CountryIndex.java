@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Países repartidos por continente una sola vez, con los agregados que piden las
+// consultas por continente ya calculados en un recorrido de cada partición. Evita el
+// patrón distinct() + toMap que volvía a recorrer todos los países por continente.
+public final class CountryIndex {
+    public record Continent(String name,
+                            List<Country> countries,
+                            Country.City mostPopulatedCity,
+                            Country.City mostPopulatedCapital,
+                            Country richest,
+                            Statistics population,
+                            Country leastPopulated,
+                            Country mostPopulated,
+                            List<Country> byCities) {
+        // El acumulador no sale del índice: cada llamada devuelve una copia, así que
+        // quien la modifique no cambia las respuestas siguientes.
+        @Override
+        public Statistics population() {
+            return population.copy();
+        }
+
+        // Países con la población mínima y máxima, en el orden original.
+        public List<Country> populationExtremes() {
+            return countries.stream().filter(c -> c == leastPopulated || c == mostPopulated).toList();
+        }
+    }
+
+    private final Map<String, Continent> continents;
+
+    private CountryIndex(Map<String, Continent> continents) {
+        this.continents = continents;
+    }
+
+    public static CountryIndex build(List<Country> countries) {
+        return build(countries, CityRegistry.build(countries));
+    }
+
+    public static CountryIndex build(List<Country> countries, CityRegistry cities) {
+        Map<String, List<Country>> partitions = countries.stream()
+                .collect(Collectors.groupingBy(Country::continent, LinkedHashMap::new, Collectors.toList()));
+        Map<String, Continent> continents = new LinkedHashMap<>();
+        partitions.forEach((name, members) -> continents.put(name, summarize(name, members, cities)));
+        return new CountryIndex(continents);
+    }
+
+    private static Continent summarize(String name, List<Country> countries, CityRegistry registry) {
+        Country.City mostPopulatedCity = null;
+        Country.City mostPopulatedCapital = null;
+        Country richest = null;
+        Country leastPopulated = null;
+        Country mostPopulated = null;
+        Statistics population = new Statistics();
+        for (Country country : countries) {
+            for (Country.City city : country.cities())
+                if (mostPopulatedCity == null || city.population() > mostPopulatedCity.population())
+                    mostPopulatedCity = city;
+            Country.City capital = registry.capital(country);
+            if (capital != null && (mostPopulatedCapital == null || capital.population() > mostPopulatedCapital.population()))
+                mostPopulatedCapital = capital;
+            if (richest == null || country.gnp() > richest.gnp()) richest = country;
+            if (leastPopulated == null || country.population() < leastPopulated.population()) leastPopulated = country;
+            if (mostPopulated == null || country.population() > mostPopulated.population()) mostPopulated = country;
+            population.add(country.population());
+        }
+        List<Country> byCities = new ArrayList<>(countries);
+        byCities.sort(Comparator.comparingInt(country -> country.cities().size()));
+        return new Continent(name, List.copyOf(countries), mostPopulatedCity, mostPopulatedCapital, richest,
+                population, leastPopulated, mostPopulated, List.copyOf(byCities));
+    }
+
+    public List<String> continentNames() {
+        return List.copyOf(continents.keySet());
+    }
+
+    public Continent continent(String name) {
+        return continents.get(name);
+    }
+
+    // Un valor por continente, en el orden en que aparecen los continentes.
+    public <T> Map<String, T> map(Function<Continent, T> value) {
+        Map<String, T> result = new LinkedHashMap<>();
+        continents.forEach((name, continent) -> result.put(name, value.apply(continent)));
+        return result;
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Las consultas de países de Main sobre una lista cualquiera, para poder ejecutarlas
+// también sobre mundos generados. El registro de ciudades y el índice por continente
+// se construyen una vez, al crear el objeto.
+public final class CountryQueries {
+    private final List<Country> countries;
+    private final CityRegistry cityRegistry;
+    private final CountryIndex countryIndex;
+    // null si no hay caché.
+    private final QueryCache cache;
+
+    public CountryQueries(List<Country> countries) {
+        this(countries, null);
+    }
+
+    // Con caché, cada consulta se calcula una vez por conjunto de datos mientras quepa en ella.
+    // Se guarda una copia inmutable de la lista (la misma si ya lo era), que es lo que
+    // identifica los datos en la caché.
+    public CountryQueries(List<Country> countries, QueryCache cache) {
+        this.countries = List.copyOf(countries);
+        this.cache = cache;
+        this.cityRegistry = CityRegistry.build(this.countries);
+        this.countryIndex = CountryIndex.build(this.countries, cityRegistry);
+    }
+
+    // 1. Ciudad más poblada de cada continente.
+    public Map<String, String> mostPopulatedCityOfContinent() {
+        return run("1 mostPopulatedCityOfContinent", () ->
+                countryIndex.map(continent -> continent.mostPopulatedCity().name()));
+    }
+
+    // 2. Capital más poblada.
+    public String mostPopulatedCapital() {
+        return run("2 mostPopulatedCapital", () -> countries.stream()
+                .map(cityRegistry::capital)
+                .filter(Objects::nonNull)
+                .max(Comparator.comparingInt(Country.City::population)).get().name());
+    }
+
+    // 3. Capital más poblada de cada continente.
+    public Map<String, String> mostPopulatedCapitalOfContinent() {
+        return run("3 mostPopulatedCapitalOfContinent", () ->
+                countryIndex.map(continent -> continent.mostPopulatedCapital().name()));
+    }
+
+    // 4. Países por número de ciudades, de más a menos.
+    public List<Map.Entry<String, Long>> citiesPerCountry() {
+        return run("4 citiesPerCountry", () ->
+                Ranking.of(countries, country -> country.cities().size()).descending().stream()
+                        .map(country -> Map.entry(country.name(), (long) country.cities().size()))
+                        .toList());
+    }
+
+    // 5. Países por densidad de población, de más a menos, sin los despoblados.
+    public List<String> byDensity() {
+        return run("5 byDensity", () -> Ranking.density(countries).descending().stream().map(Country::name).toList());
+    }
+
+    // 6. País más rico (PNB) de cada continente.
+    public Map<String, String> richestCountryByContinent() {
+        return run("6 richestCountryByContinent", () -> countryIndex.map(continent -> continent.richest().name()));
+    }
+
+    // 7. Población mínima, máxima y promedio de los países del mundo.
+    public Statistics populationStatistics() {
+        return run("7 populationStatistics", () ->
+                countries.stream().collect(Statistics.collector(Country::population)));
+    }
+
+    // 8. Población mínima, máxima y promedio de cada continente.
+    public Map<String, Statistics> populationStatisticsByContinent() {
+        return run("8 populationStatisticsByContinent", () -> countryIndex.map(CountryIndex.Continent::population));
+    }
+
+    // 9. Países con la población mínima y máxima.
+    public List<String> populationExtremes() {
+        return run("9 populationExtremes", () ->
+                Ranking.population(countries).extremes().stream().map(Country::name).toList());
+    }
+
+    // 10. Países de cada continente con la población mínima y máxima.
+    public Map<String, List<String>> populationExtremesByContinent() {
+        return run("10 populationExtremesByContinent", () ->
+                countryIndex.map(continent -> continent.populationExtremes().stream().map(Country::name).toList()));
+    }
+
+    // 11. Países de cada continente ordenados por número de ciudades.
+    public Map<String, List<String>> byCitiesByContinent() {
+        return run("11 byCitiesByContinent", () ->
+                countryIndex.map(continent -> continent.byCities().stream().map(Country::name).toList()));
+    }
+
+    // 12. Ciudades con la población mínima y máxima de cada país.
+    public Map<String, List<String>> cityExtremesByCountry() {
+        return run("12 cityExtremesByCountry", () -> countries.stream().collect(Collectors.toMap(
+                Country::name,
+                country -> Ranking.cities(country.cities()).extremes().stream().map(Country.City::name).toList()
+        )));
+    }
+
+    // 13. Mínimo, máximo, promedio y desviación estándar del PNB.
+    public Statistics gnpStatistics() {
+        return run("13 gnpStatistics", () -> countries.stream().collect(Statistics.collector(Country::gnp)));
+    }
+
+    private <T> T run(String query, Supplier<T> body) {
+        if (cache == null) return QueryMetrics.run("countries", query, countries.size(), body);
+        return cache.get("countries", query, countries,
+                () -> QueryMetrics.run("countries", query, countries.size(), body));
+    }
+
+    // Todas las consultas por número, en orden, para recorrerlas sin nombrarlas una a una.
+    public Map<String, Supplier<Object>> all() {
+        Map<String, Supplier<Object>> queries = new LinkedHashMap<>();
+        queries.put("1 mostPopulatedCityOfContinent", this::mostPopulatedCityOfContinent);
+        queries.put("2 mostPopulatedCapital", this::mostPopulatedCapital);
+        queries.put("3 mostPopulatedCapitalOfContinent", this::mostPopulatedCapitalOfContinent);
+        queries.put("4 citiesPerCountry", this::citiesPerCountry);
+        queries.put("5 byDensity", this::byDensity);
+        queries.put("6 richestCountryByContinent", this::richestCountryByContinent);
+        queries.put("7 populationStatistics", this::populationStatistics);
+        queries.put("8 populationStatisticsByContinent", this::populationStatisticsByContinent);
+        queries.put("9 populationExtremes", this::populationExtremes);
+        queries.put("10 populationExtremesByContinent", this::populationExtremesByContinent);
+        queries.put("11 byCitiesByContinent", this::byCitiesByContinent);
+        queries.put("12 cityExtremesByCountry", this::cityExtremesByCountry);
+        queries.put("13 gnpStatistics", this::gnpStatistics);
+        return queries;
+    }
+}
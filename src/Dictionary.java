@@ -0,0 +1,328 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Diccionario cargado con mmap: las palabras no se copian al heap, solo se indexa
+// dónde empieza cada línea y cuánto mide.
+public final class Dictionary {
+    // Cada span empaqueta (inicio << 32 | longitud); el bit NON_ASCII marca las
+    // líneas con caracteres UTF-8 multibyte. Esas líneas se decodifican una sola vez,
+    // al construir, en un char[] compartido (el snapshot lo guarda ya decodificado):
+    // leerlas después no reserva nada.
+    private static final long NON_ASCII = 1L << 31;
+    private static final long LENGTH_MASK = NON_ASCII - 1;
+
+    private final ByteBuffer bytes;
+    private final long[] spans;
+    private final int size;
+    private final char[] decoded;
+    // Posición de cada línea no ASCII en decoded, con el mismo formato que spans; null
+    // si todas son ASCII.
+    private final long[] decodedSpans;
+
+    Dictionary(ByteBuffer bytes, long[] spans, int size) {
+        this.bytes = bytes;
+        this.spans = spans;
+        this.size = size;
+        char[] decoded = new char[0];
+        long[] decodedSpans = null;
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            long span = spans[i];
+            if (spanStart(span) < 0 || spanStart(span) + (long) spanLength(span) > bytes.limit())
+                throw new IllegalArgumentException("Word " + i + " out of the text: " + Long.toHexString(span));
+            if ((span & NON_ASCII) == 0) continue;
+            if (decodedSpans == null) decodedSpans = new long[size];
+            int length = spanLength(span);
+            if (position + length > decoded.length)
+                decoded = Arrays.copyOf(decoded, Math.max(position + length, decoded.length * 2));
+            int end = decode(bytes, spanStart(span), length, decoded, position);
+            decodedSpans[i] = (long) position << 32 | (end - position);
+            position = end;
+        }
+        this.decoded = Arrays.copyOf(decoded, position);
+        this.decodedSpans = decodedSpans;
+    }
+
+    // Desde el snapshot: las líneas no ASCII llegan ya decodificadas, una tras otra en
+    // decoded, y lengths da cuántos caracteres ocupa cada una. No se decodifica nada.
+    Dictionary(ByteBuffer bytes, long[] spans, int size, char[] decoded, int[] lengths) {
+        this.bytes = bytes;
+        this.spans = spans;
+        this.size = size;
+        this.decoded = decoded;
+        long[] decodedSpans = null;
+        int line = 0;
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            long span = spans[i];
+            if (spanStart(span) < 0 || spanStart(span) + (long) spanLength(span) > bytes.limit())
+                throw new IllegalArgumentException("Word " + i + " out of the text: " + Long.toHexString(span));
+            if ((span & NON_ASCII) == 0) continue;
+            if (decodedSpans == null) decodedSpans = new long[size];
+            if (line == lengths.length || lengths[line] < 0 || lengths[line] > decoded.length - position)
+                throw new IllegalArgumentException("Word " + i + " out of the decoded text");
+            decodedSpans[i] = (long) position << 32 | lengths[line];
+            position += lengths[line++];
+        }
+        if (line != lengths.length || position != decoded.length)
+            throw new IllegalArgumentException("Decoded text does not match the words: " + line + " of "
+                    + lengths.length + " lines, " + position + " of " + decoded.length + " chars");
+        this.decodedSpans = decodedSpans;
+    }
+
+    public static Dictionary load(Path path) throws IOException {
+        return index(map(path));
+    }
+
+    // Palabras del fichero sin construir el índice de líneas. En paralelo el fichero se
+    // reparte por rangos de bytes entre los hilos (ver LineSpliterator).
+    public static Stream<CharSequence> scan(Path path, boolean parallel) throws IOException {
+        MappedByteBuffer mapped = map(path);
+        return StreamSupport.stream(new LineSpliterator(mapped, 0, mapped.limit()), parallel);
+    }
+
+    static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Dictionary too large to map: " + path + " (" + channel.size() + " bytes)");
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    static Dictionary index(ByteBuffer bytes) {
+        long[] spans = new long[1024];
+        int size = 0;
+        int limit = bytes.limit();
+        int start = 0;
+        boolean ascii = true;
+        for (int i = 0; i <= limit; i++) {
+            byte b = i < limit ? bytes.get(i) : (byte) '\n';
+            if (b != '\n') {
+                if (b < 0) ascii = false;
+                continue;
+            }
+            int end = i > start && bytes.get(i - 1) == '\r' ? i - 1 : i;
+            if (end > start) {
+                if (size == spans.length) spans = Arrays.copyOf(spans, size * 2);
+                spans[size++] = (long) start << 32 | (ascii ? 0 : NON_ASCII) | (end - start);
+            }
+            start = i + 1;
+            ascii = true;
+        }
+        return new Dictionary(bytes, spans, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    ByteBuffer bytes() {
+        return bytes;
+    }
+
+    long[] spans() {
+        return spans;
+    }
+
+    char[] decoded() {
+        return decoded;
+    }
+
+    // Caracteres de cada línea no ASCII, en orden de ordinal (lo que guarda el snapshot).
+    int[] decodedLengths() {
+        int lines = 0;
+        for (int i = 0; i < size; i++) if ((spans[i] & NON_ASCII) != 0) lines++;
+        int[] lengths = new int[lines];
+        lines = 0;
+        for (int i = 0; i < size; i++) if ((spans[i] & NON_ASCII) != 0) lengths[lines++] = spanLength(decodedSpans[i]);
+        return lengths;
+    }
+
+    public CharSequence word(int index) {
+        Objects.checkIndex(index, size);
+        long span = spans[index];
+        if ((span & NON_ASCII) == 0) return new Word(bytes, spanStart(span), spanLength(span));
+        long chars = decodedSpans[index];
+        return new Word(decoded, spanStart(chars), spanLength(chars));
+    }
+
+    // Longitud y caracteres de una palabra sin crear la vista, para los bucles que
+    // comparan muchas palabras (búsquedas binarias, ordenación).
+    int length(int ordinal) {
+        long span = spans[ordinal];
+        return spanLength((span & NON_ASCII) == 0 ? span : decodedSpans[ordinal]);
+    }
+
+    char charAt(int ordinal, int index) {
+        long span = spans[ordinal];
+        if ((span & NON_ASCII) == 0) return (char) (bytes.get(spanStart(span) + index) & 0xff);
+        return decoded[spanStart(decodedSpans[ordinal]) + index];
+    }
+
+    private static int spanStart(long span) {
+        return (int) (span >>> 32);
+    }
+
+    private static int spanLength(long span) {
+        return (int) (span & LENGTH_MASK);
+    }
+
+    // Vista de una línea sin índice (la usa scan): las no ASCII se decodifican a un char[].
+    static CharSequence view(ByteBuffer bytes, int start, int length, boolean ascii) {
+        if (ascii) return new Word(bytes, start, length);
+        char[] chars = new char[length];
+        return new Word(chars, 0, decode(bytes, start, length, chars, 0));
+    }
+
+    // Decodifica el UTF-8 de bytes[start, start + length) en out desde position y
+    // devuelve dónde termina; nunca escribe más caracteres que bytes. Cada secuencia mal
+    // formada se sustituye por un U+FFFD.
+    static int decode(ByteBuffer bytes, int start, int length, char[] out, int position) {
+        int end = start + length;
+        for (int i = start; i < end; ) {
+            int b = bytes.get(i++) & 0xff;
+            if (b < 0x80) {
+                out[position++] = (char) b;
+                continue;
+            }
+            int needed = b >= 0xC2 && b < 0xE0 ? 1 : b >= 0xE0 && b < 0xF0 ? 2 : b >= 0xF0 && b < 0xF5 ? 3 : 0;
+            int code = b & 0x3F >> needed;
+            int read = 0;
+            while (read < needed && i < end && (bytes.get(i) & 0xC0) == 0x80) {
+                code = code << 6 | bytes.get(i++) & 0x3F;
+                read++;
+            }
+            if (needed == 0 || read < needed || code < (needed == 2 ? 0x800 : needed == 3 ? 0x10000 : 0x80)
+                    || code > Character.MAX_CODE_POINT || Character.isSurrogate((char) code) && code < 0x10000) {
+                out[position++] = '\uFFFD';
+            } else if (code >= 0x10000) {
+                out[position++] = Character.highSurrogate(code);
+                out[position++] = Character.lowSurrogate(code);
+            } else {
+                out[position++] = (char) code;
+            }
+        }
+        return position;
+    }
+
+    public List<CharSequence> words() {
+        return new AbstractList<>() {
+            @Override
+            public CharSequence get(int index) {
+                return word(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Vista de las palabras con los ordinales dados, en ese orden.
+    public List<CharSequence> words(int[] ordinals) {
+        return new AbstractList<>() {
+            @Override
+            public CharSequence get(int index) {
+                return word(ordinals[index]);
+            }
+
+            @Override
+            public int size() {
+                return ordinals.length;
+            }
+        };
+    }
+
+    public Stream<CharSequence> stream() {
+        return IntStream.range(0, size).mapToObj(this::word);
+    }
+
+    // Vista sobre los bytes mapeados (líneas ASCII) o sobre un char[] ya decodificado.
+    // hashCode y equals siguen la semántica de String para poder usarla como clave.
+    static final class Word implements CharSequence, Comparable<Word> {
+        private final ByteBuffer bytes;
+        private final char[] chars;
+        private final int start;
+        private final int length;
+        private int hash;
+
+        Word(ByteBuffer bytes, int start, int length) {
+            this.bytes = bytes;
+            this.chars = null;
+            this.start = start;
+            this.length = length;
+        }
+
+        Word(char[] chars, int start, int length) {
+            this.bytes = null;
+            this.chars = chars;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            Objects.checkIndex(index, length);
+            return chars != null ? chars[start + index] : (char) (bytes.get(start + index) & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            Objects.checkFromToIndex(from, to, length);
+            return chars != null ? new Word(chars, start + from, to - from) : new Word(bytes, start + from, to - from);
+        }
+
+        @Override
+        public int compareTo(Word other) {
+            // No delegar en CharSequence.compare: para Comparable llama de vuelta a compareTo.
+            int length = Math.min(this.length, other.length);
+            for (int i = 0; i < length; i++) {
+                int diff = charAt(i) - other.charAt(i);
+                if (diff != 0) return diff;
+            }
+            return this.length - other.length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Word other) || other.length != length || other.hashCode() != hashCode()) return false;
+            for (int i = 0; i < length; i++) if (charAt(i) != other.charAt(i)) return false;
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = hash;
+            if (h == 0) {
+                for (int i = 0; i < length; i++) h = 31 * h + charAt(i);
+                hash = h;
+            }
+            return h;
+        }
+
+        @Override
+        public String toString() {
+            char[] copy = new char[length];
+            for (int i = 0; i < length; i++) copy[i] = charAt(i);
+            return new String(copy);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Las consultas del diccionario de Main sobre un DictionarySnapshot cualquiera, para
+// poder medirlas también sobre diccionarios generados. Las palabras salen en el orden
+// del fichero, como en Main, aunque el fichero no venga ordenado.
+public final class DictionaryQueries {
+    private final DictionarySnapshot snapshot;
+    // null si no hay caché.
+    private final QueryCache cache;
+
+    public DictionaryQueries(DictionarySnapshot snapshot) {
+        this(snapshot, null);
+    }
+
+    // Con caché, cada consulta se calcula una vez por conjunto de datos mientras quepa en ella;
+    // el snapshot es inmutable y es lo que identifica los datos en la caché.
+    public DictionaryQueries(DictionarySnapshot snapshot, QueryCache cache) {
+        this.snapshot = snapshot;
+        this.cache = cache;
+    }
+
+    // Índices de una lista de palabras en memoria, sin pasar por fichero.
+    public static DictionaryQueries of(List<String> words) {
+        byte[] text = String.join("\n", words).getBytes(StandardCharsets.UTF_8);
+        return new DictionaryQueries(DictionarySnapshot.build(ByteBuffer.wrap(text)));
+    }
+
+    // 1. Palabras que empiezan por las letras de la "a" a la "m".
+    public List<CharSequence> aToM() {
+        return run("1 aToM", () -> words(snapshot.index().range("", "m")));
+    }
+
+    // 2. Palabras desde la "n" hasta el final del diccionario.
+    public List<CharSequence> nToEnd() {
+        return run("2 nToEnd", () -> words(snapshot.index().from("n")));
+    }
+
+    // 3. Palabras agrupadas por sus tres primeras letras.
+    public PrefixBuckets byFirstLetters() {
+        return run("3 byFirstLetters", () -> snapshot.prefixes());
+    }
+
+    // 4. Palíndromos.
+    public List<CharSequence> palindromes() {
+        return run("4 palindromes", () -> snapshot.dictionary().words(snapshot.palindromes().stream().toArray()));
+    }
+
+    // 5. Vocales de cada palabra.
+    public VowelCounts vowels() {
+        return run("5 vowels", () -> snapshot.vowels());
+    }
+
+    // 6. Palabras que empiezan por "a" y terminan en "z".
+    public List<CharSequence> aStartZEnd() {
+        return run("6 aStartZEnd", () -> snapshot.dictionary().words(snapshot.index().prefixAndSuffix("a", "z")));
+    }
+
+    // 7. Palabra más larga.
+    public CharSequence longest() {
+        return run("7 longest", () -> snapshot.lengths().longest());
+    }
+
+    private List<CharSequence> words(int[] ordinals) {
+        return snapshot.dictionary().words(snapshot.index().fileOrder(ordinals));
+    }
+
+    private <T> T run(String query, Supplier<T> body) {
+        if (cache == null) return QueryMetrics.run("dictionary", query, snapshot.dictionary().size(), body);
+        return cache.get("dictionary", query, snapshot,
+                () -> QueryMetrics.run("dictionary", query, snapshot.dictionary().size(), body));
+    }
+
+    // Todas las consultas por número, en orden.
+    public Map<String, Supplier<Object>> all() {
+        Map<String, Supplier<Object>> queries = new LinkedHashMap<>();
+        queries.put("1 aToM", this::aToM);
+        queries.put("2 nToEnd", this::nToEnd);
+        queries.put("3 byFirstLetters", this::byFirstLetters);
+        queries.put("4 palindromes", this::palindromes);
+        queries.put("5 vowels", this::vowels);
+        queries.put("6 aStartZEnd", this::aStartZEnd);
+        queries.put("7 longest", this::longest);
+        return queries;
+    }
+}
@@ -0,0 +1,253 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+// Diccionario y sus índices derivados en un único fichero binario que se abre con
+// un solo mmap. Formato (big-endian, versión 3):
+//
+//   int magic "DSNP", int versión
+//   long tamaño, long fecha de modificación y long CRC32 del fichero de texto
+//   int palabras, int flags (bit 0: hay permutación alfabética), int bytes de texto
+//   byte[] texto original                  -> Dictionary (se usa mapeado, sin copiar)
+//   long[palabras] spans                   -> Dictionary
+//   int n, int[n] caracteres de cada línea no ASCII, int c, char[c] esas líneas
+//                                          -> Dictionary (ya decodificadas)
+//   int[palabras] orden alfabético (flag)  -> WordIndex
+//   int[palabras] orden por sufijo         -> WordIndex
+//   PrefixBuckets en su propio formato
+//   int n, long[n] palíndromos             -> BitSet por ordinal
+//   byte[palabras] vocales                 -> VowelCounts
+//   int k, int m, int[m] histograma de longitudes, int t, int[t] ordinales de las t <= k
+//   palabras más largas, en el orden del heap -> LengthStats
+//
+// Si tamaño y fecha del texto coinciden se da por bueno sin leerlo; si no, se compara
+// el CRC32 y, cuando tampoco coincide, se reconstruye y se reescribe el snapshot.
+//
+// Abrir no recorre las palabras: ni decodifica las no ASCII ni recalcula LengthStats,
+// que se guardan hechos. Solo se copian en bloque las tablas y se validan sus rangos.
+public record DictionarySnapshot(Dictionary dictionary, WordIndex index, PrefixBuckets prefixes,
+                                 BitSet palindromes, VowelCounts vowels, LengthStats lengths) {
+    static final int MAGIC = 0x44534E50; // "DSNP"
+    static final int LONGEST = 10;
+    static final int VERSION = 3;
+    private static final int SORTED = 1;
+    private static final int HEADER = 2 * Integer.BYTES + 3 * Long.BYTES + 3 * Integer.BYTES;
+
+    private record Source(long size, long modified, long checksum) { }
+
+    public static DictionarySnapshot open(Path source, Path snapshot) throws IOException {
+        long size = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        if (current(source, snapshot, size, modified)) {
+            try {
+                return read(Dictionary.map(snapshot));
+            } catch (IOException | RuntimeException e) {
+                // Tablas truncadas o corruptas: se reconstruye. El CRC solo cubre el texto,
+                // así que cualquier fallo al leerlas cuenta igual.
+            }
+        }
+        MappedByteBuffer text = Dictionary.map(source);
+        DictionarySnapshot built = build(text);
+        built.write(snapshot, new Source(size, modified, checksum(text)));
+        return built;
+    }
+
+    // La cabecera se lee sin mapear el fichero: un snapshot desactualizado se reemplaza
+    // sin haberlo mapeado nunca (en Windows no se puede sustituir un fichero mapeado).
+    private static boolean current(Path source, Path snapshot, long size, long modified) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            while (header.hasRemaining()) if (channel.read(header) < 0) return false;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getLong(8) != size) return false;
+        if (header.getLong(16) == modified) return true;
+        if (header.getLong(24) != checksum(Dictionary.map(source))) return false;
+        touch(snapshot, modified);
+        return true;
+    }
+
+    static DictionarySnapshot build(ByteBuffer text) {
+        Dictionary dictionary = Dictionary.index(text);
+        WordIndex index = WordIndex.build(dictionary);
+        BitSet palindromes = new BitSet(dictionary.size());
+        for (int i = 0; i < dictionary.size(); i++) if (TextKernels.isPalindrome(dictionary.word(i))) palindromes.set(i);
+        return new DictionarySnapshot(dictionary, index, PrefixBuckets.build(index), palindromes,
+                VowelCounts.build(index), lengths(dictionary));
+    }
+
+    private static LengthStats lengths(Dictionary dictionary) {
+        LengthStats lengths = new LengthStats(LONGEST);
+        for (int i = 0; i < dictionary.size(); i++) lengths.add(dictionary.word(i));
+        return lengths;
+    }
+
+    // Mismo contenido con otra fecha: se actualiza la fecha para no volver a calcular el CRC.
+    private static void touch(Path snapshot, long modified) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, modified), 16);
+        }
+    }
+
+    private static long checksum(ByteBuffer text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.duplicate().clear());
+        return crc.getValue();
+    }
+
+    private void write(Path snapshot, Source source) throws IOException {
+        int words = dictionary.size();
+        ByteBuffer text = dictionary.bytes().duplicate().clear();
+        int[] order = index.order();
+        long[] palindromeBits = palindromes.toLongArray();
+        int[] decodedLengths = dictionary.decodedLengths();
+        char[] decoded = dictionary.decoded();
+        int[] histogram = lengths.histogram();
+        long[] longest = lengths.arrivals();
+        long length = HEADER + (long) text.remaining() + (long) words * Long.BYTES
+                + Integer.BYTES + (long) decodedLengths.length * Integer.BYTES + Integer.BYTES
+                + (long) decoded.length * Character.BYTES
+                + (order == null ? 0 : (long) words * Integer.BYTES) + (long) words * Integer.BYTES
+                + prefixes.serializedSize() + Integer.BYTES + (long) palindromeBits.length * Long.BYTES + words
+                + 3 * Integer.BYTES + (long) histogram.length * Integer.BYTES + (long) longest.length * Integer.BYTES;
+        if (length > Integer.MAX_VALUE) throw new IOException("Snapshot too large: " + length + " bytes");
+
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            out.putInt(MAGIC).putInt(VERSION)
+                    .putLong(source.size).putLong(source.modified).putLong(source.checksum)
+                    .putInt(words).putInt(order == null ? SORTED : 0).putInt(text.remaining());
+            out.put(text);
+            putLongs(out, dictionary.spans(), words);
+            out.putInt(decodedLengths.length);
+            putInts(out, decodedLengths);
+            out.putInt(decoded.length);
+            out.asCharBuffer().put(decoded);
+            out.position(out.position() + decoded.length * Character.BYTES);
+            if (order != null) putInts(out, order);
+            putInts(out, index.suffixOrder());
+            prefixes.write(out);
+            out.putInt(palindromeBits.length);
+            putLongs(out, palindromeBits, palindromeBits.length);
+            out.put(vowels.counts());
+            // Las llegadas son ordinales: LengthStats se llenó en orden de ordinal.
+            out.putInt(LONGEST).putInt(histogram.length);
+            putInts(out, histogram);
+            out.putInt(longest.length);
+            for (long ordinal : longest) out.putInt((int) ordinal);
+            out.force();
+        }
+        try {
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            throw e;
+        } catch (FileSystemException e) {
+            // El viejo sigue mapeado (se leyó y resultó corrupto, u otro DictionarySnapshot
+            // de este proceso lo usa) y el sistema no deja reemplazarlo: se usa el nuevo
+            // sin guardarlo y el próximo open lo vuelve a intentar.
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // Los bytes del texto quedan mapeados; las tablas de enteros se copian en bloque.
+    // Antes de cada tabla se comprueba que el fichero la contiene entera.
+    private static DictionarySnapshot read(ByteBuffer in) throws IOException {
+        in.position(HEADER - 3 * Integer.BYTES);
+        int words = in.getInt();
+        boolean sorted = (in.getInt() & SORTED) != 0;
+        int textLength = in.getInt();
+        require(in, textLength, 1);
+        ByteBuffer text = in.slice(in.position(), textLength);
+        in.position(in.position() + textLength);
+
+        require(in, words, Long.BYTES);
+        long[] spans = getLongs(in, words);
+        require(in, 1, Integer.BYTES);
+        int lines = in.getInt();
+        require(in, lines, Integer.BYTES);
+        int[] decodedLengths = getInts(in, lines);
+        require(in, 1, Integer.BYTES);
+        int chars = in.getInt();
+        require(in, chars, Character.BYTES);
+        char[] decoded = new char[chars];
+        in.asCharBuffer().get(decoded);
+        in.position(in.position() + chars * Character.BYTES);
+        Dictionary dictionary = new Dictionary(text, spans, words, decoded, decodedLengths);
+        require(in, words, (sorted ? 1 : 2) * Integer.BYTES);
+        int[] order = sorted ? null : ordinals(getInts(in, words));
+        WordIndex index = new WordIndex(dictionary, order, ordinals(getInts(in, words)));
+        PrefixBuckets prefixes = PrefixBuckets.read(in, index);
+        require(in, 1, Integer.BYTES);
+        int palindromeWords = in.getInt();
+        require(in, palindromeWords, Long.BYTES);
+        BitSet palindromes = BitSet.valueOf(getLongs(in, palindromeWords));
+        require(in, words, 1);
+        byte[] counts = new byte[words];
+        in.get(counts);
+        require(in, 2, Integer.BYTES);
+        int k = in.getInt();
+        int longestLength = in.getInt();
+        require(in, longestLength, Integer.BYTES);
+        int[] histogram = getInts(in, longestLength);
+        require(in, 1, Integer.BYTES);
+        int top = in.getInt();
+        require(in, top, Integer.BYTES);
+        long[] longest = new long[top];
+        for (int i = 0; i < top; i++) {
+            longest[i] = in.getInt();
+            if (longest[i] < 0 || longest[i] >= words) throw new IOException("Corrupt longest word: " + longest[i]);
+        }
+        LengthStats lengths = new LengthStats(k, histogram, longest, ordinal -> dictionary.word((int) ordinal));
+        return new DictionarySnapshot(dictionary, index, prefixes, palindromes, new VowelCounts(index, counts), lengths);
+    }
+
+    // Una permutación corrupta no falla al leerla sino al consultar: se comprueba aquí.
+    private static int[] ordinals(int[] ordinals) throws IOException {
+        for (int ordinal : ordinals)
+            if (ordinal < 0 || ordinal >= ordinals.length) throw new IOException("Corrupt word order: " + ordinal);
+        return ordinals;
+    }
+
+    static void require(ByteBuffer in, int count, int bytes) throws IOException {
+        if (count < 0 || (long) count * bytes > in.remaining())
+            throw new IOException("Truncated snapshot: " + count + " entries of " + bytes + " bytes at offset "
+                    + in.position() + ", " + in.remaining() + " bytes left");
+    }
+
+    private static void putLongs(ByteBuffer out, long[] values, int length) {
+        out.asLongBuffer().put(values, 0, length);
+        out.position(out.position() + length * Long.BYTES);
+    }
+
+    private static void putInts(ByteBuffer out, int[] values) {
+        out.asIntBuffer().put(values);
+        out.position(out.position() + values.length * Integer.BYTES);
+    }
+
+    private static long[] getLongs(ByteBuffer in, int length) {
+        long[] values = new long[length];
+        in.asLongBuffer().get(values);
+        in.position(in.position() + length * Long.BYTES);
+        return values;
+    }
+
+    private static int[] getInts(ByteBuffer in, int length) {
+        int[] values = new int[length];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + length * Integer.BYTES);
+        return values;
+    }
+}
@@ -0,0 +1,31 @@
+// Conjunto de géneros de un MovieIndex como máscara de bits: el bit de cada género es
+// su hueco en el índice (por orden de aparición), no su id, así que sirve con ids
+// dispersos o enormes. Caben los 64 primeros géneros del índice. Igualdad, subconjunto,
+// superconjunto e intersección son una sola operación; solo se combinan conjuntos del
+// mismo índice (los crea MovieIndex.genreSet).
+public record GenreSet(MovieIndex index, long mask) {
+    public boolean contains(Movie.Genre genre) {
+        return (mask & index.genreBit(genre)) != 0;
+    }
+
+    public boolean containsAll(GenreSet other) {
+        return (mask & same(other).mask) == other.mask;
+    }
+
+    public boolean isSubsetOf(GenreSet other) {
+        return (mask & ~same(other).mask) == 0;
+    }
+
+    public boolean intersects(GenreSet other) {
+        return (mask & same(other).mask) != 0;
+    }
+
+    public int size() {
+        return Long.bitCount(mask);
+    }
+
+    private GenreSet same(GenreSet other) {
+        if (other.index != index) throw new IllegalArgumentException("Genre sets of different indexes");
+        return other;
+    }
+}
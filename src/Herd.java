@@ -0,0 +1,140 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import animals.Animal;
+import pets.Pet;
+
+// Rebaño compacto: en vez de un objeto por animal, una columna byte[] con el ordinal de
+// especie de cada uno y los nombres de las mascotas seguidos en un único byte[] UTF-8
+// (con sus offsets). Las patas no se guardan por animal: salen de una tabla por especie.
+// Los agregados son bucles sobre el byte[]; el total de patas ni siquiera mira las
+// patas por animal, cuenta animales por especie y multiplica. Como mucho admite 256
+// especies.
+public final class Herd {
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final byte[] species;
+    private final byte[] names;
+    private final int[] nameOffsets;
+    private final Species[] registry;
+    private final int[] legs;
+
+    private Herd(byte[] species, byte[] names, int[] nameOffsets, Species[] registry, int[] legs) {
+        this.species = species;
+        this.names = names;
+        this.nameOffsets = nameOffsets;
+        this.registry = registry;
+        this.legs = legs;
+    }
+
+    public static Herd of(List<? extends Animal> animals) {
+        int size = animals.size();
+        byte[] species = new byte[size];
+        int[] nameOffsets = new int[size + 1];
+        byte[] names = new byte[Math.max(16, size)];
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            Animal animal = animals.get(i);
+            Species of = Species.of(animal);
+            if (of.ordinal() > 255) throw new IllegalArgumentException("Too many species for a Herd: " + of);
+            species[i] = (byte) of.ordinal();
+            if (of.isPet()) {
+                byte[] name = ((Pet) animal).name().getBytes(StandardCharsets.UTF_8);
+                if (position + name.length > names.length)
+                    names = Arrays.copyOf(names, Math.max(position + name.length, names.length * 2));
+                System.arraycopy(name, 0, names, position, name.length);
+                position += name.length;
+            }
+            nameOffsets[i + 1] = position;
+        }
+        // Tabla de especies tal como estaba al construir; las que aparezcan después no
+        // pueden estar en este rebaño.
+        Species[] registry = new Species[Species.count()];
+        int[] legs = new int[registry.length];
+        for (int ordinal = 0; ordinal < registry.length; ordinal++) {
+            registry[ordinal] = Species.byOrdinal(ordinal);
+            legs[ordinal] = registry[ordinal].legs();
+        }
+        return new Herd(species, Arrays.copyOf(names, position), nameOffsets, registry, legs);
+    }
+
+    public int size() {
+        return species.length;
+    }
+
+    public Species species(int animal) {
+        return registry[species[animal] & 0xFF];
+    }
+
+    public int legs(int animal) {
+        return legs[species[animal] & 0xFF];
+    }
+
+    // Nombre de la mascota, o null si el animal es salvaje.
+    public String name(int animal) {
+        if (!species(animal).isPet()) return null;
+        int start = nameOffsets[animal];
+        return new String(names, start, nameOffsets[animal + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    // Animal nuevo, igual que el que se guardó (no la misma instancia).
+    public Animal animal(int animal) {
+        return species(animal).create(name(animal));
+    }
+
+    public List<Animal> toList() {
+        List<Animal> animals = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) animals.add(animal(i));
+        return animals;
+    }
+
+    // Animales de cada especie, indexados por ordinal.
+    public long[] speciesCounts(boolean parallel) {
+        return rows(parallel).collect(() -> new long[registry.length],
+                (counts, row) -> counts[species[row] & 0xFF]++,
+                (a, b) -> {
+                    for (int i = 0; i < a.length; i++) a[i] += b[i];
+                });
+    }
+
+    public long totalLegs(boolean parallel) {
+        long[] counts = speciesCounts(parallel);
+        long total = 0;
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) total += counts[ordinal] * legs[ordinal];
+        return total;
+    }
+
+    // Animales con cada número de patas; el índice es el número de patas.
+    public long[] legsHistogram(boolean parallel) {
+        long[] counts = speciesCounts(parallel);
+        long[] histogram = new long[maxLegs(counts) + 1];
+        for (int ordinal = 0; ordinal < counts.length; ordinal++)
+            if (counts[ordinal] > 0) histogram[legs[ordinal]] += counts[ordinal];
+        return histogram;
+    }
+
+    public int maxLegs(boolean parallel) {
+        return Math.max(0, maxLegs(speciesCounts(parallel)));
+    }
+
+    private int maxLegs(long[] counts) {
+        int max = -1;
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) if (counts[ordinal] > 0) max = Math.max(max, legs[ordinal]);
+        return max;
+    }
+
+    // Posición del primer animal con más patas, o -1 si el rebaño está vacío.
+    public int mostLegged(boolean parallel) {
+        int max = maxLegs(speciesCounts(parallel));
+        if (max < 0) return -1;
+        return rows(parallel).filter(row -> legs[species[row] & 0xFF] == max).findFirst().getAsInt();
+    }
+
+    private IntStream rows(boolean parallel) {
+        IntStream rows = IntStream.range(0, species.length);
+        return parallel && species.length >= PARALLEL_THRESHOLD ? rows.parallel() : rows;
+    }
+}
@@ -0,0 +1,52 @@
+// Ids cualesquiera (dispersos, enormes o negativos) a huecos densos 0, 1, 2... por
+// orden de aparición, para indexar arrays por hueco en vez de por id. Es una tabla de
+// direccionamiento abierto con claves int y sondeo lineal, como la de CityRegistry,
+// que se duplica al pasar de la mitad de ocupación: la memoria depende de cuántos ids
+// distintos hay, no de su valor.
+final class IdSlots {
+    private int[] keys = new int[16];
+    // Hueco + 1 del id en cada posición de la tabla; 0 si está libre.
+    private int[] slots = new int[16];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    // Hueco del id, o -1 si no se ha añadido.
+    int slot(int id) {
+        return slots[probe(id)] - 1;
+    }
+
+    // Hueco del id, que se crea (el siguiente libre) si no existía.
+    int add(int id) {
+        int position = probe(id);
+        if (slots[position] != 0) return slots[position] - 1;
+        keys[position] = id;
+        slots[position] = ++size;
+        if (size * 2 > keys.length) grow();
+        return size - 1;
+    }
+
+    // Posición del id en la tabla: la que lo contiene o la primera libre.
+    private int probe(int id) {
+        int mask = keys.length - 1;
+        int hash = id * 0x9E3779B9;
+        int position = (hash ^ hash >>> 16) & mask;
+        while (slots[position] != 0 && keys[position] != id) position = (position + 1) & mask;
+        return position;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new int[oldKeys.length * 2];
+        slots = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSlots[i] == 0) continue;
+            int position = probe(oldKeys[i]);
+            keys[position] = oldKeys[i];
+            slots[position] = oldSlots[i];
+        }
+    }
+}
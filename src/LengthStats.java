@@ -0,0 +1,175 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.stream.Collector;
+
+// Estadísticas de longitud que se actualizan palabra a palabra: un histograma int[]
+// indexado por longitud y un min-heap acotado con las k palabras más largas. Añadir
+// una palabra es O(log k), así que el diccionario puede crecer sin recalcular nada.
+// A igual longitud gana la palabra que llegó antes.
+public final class LengthStats {
+    private final int k;
+    private final CharSequence[] heap;
+    private final long[] arrival;
+    private int heapSize;
+    private int[] histogram = new int[32];
+    private long count;
+    private boolean readOnly;
+
+    public LengthStats(int k) {
+        if (k < 1) throw new IllegalArgumentException("k must be positive: " + k);
+        this.k = k;
+        this.heap = new CharSequence[k];
+        this.arrival = new long[k];
+    }
+
+    // Estado guardado (DictionarySnapshot): el histograma y el orden de llegada de las
+    // palabras del heap; word da la palabra que llegó en cada posición.
+    LengthStats(int k, int[] histogram, long[] top, LongFunction<CharSequence> word) {
+        this(k);
+        if (top.length > k) throw new IllegalArgumentException(top.length + " top words for k = " + k);
+        for (int count : histogram) {
+            if (count < 0) throw new IllegalArgumentException("Negative length count: " + count);
+            this.count += count;
+        }
+        if (top.length > this.count) throw new IllegalArgumentException(top.length + " top words of " + this.count);
+        this.histogram = Arrays.copyOf(histogram, Math.max(histogram.length, this.histogram.length));
+        for (long order : top) offer(word.apply(order), order);
+    }
+
+    public static Collector<CharSequence, ?, LengthStats> collector(int k) {
+        return Collector.of(() -> new LengthStats(k), LengthStats::add, LengthStats::merge);
+    }
+
+    public void add(CharSequence word) {
+        checkWritable();
+        offer(word, count);
+        int length = word.length();
+        if (length >= histogram.length) histogram = Arrays.copyOf(histogram, Math.max(length + 1, histogram.length * 2));
+        histogram[length]++;
+        count++;
+    }
+
+    // Las palabras de other se consideran posteriores a todas las de this.
+    public LengthStats merge(LengthStats other) {
+        checkWritable();
+        for (int i = 0; i < other.heapSize; i++) offer(other.heap[i], count + other.arrival[i]);
+        if (other.histogram.length > histogram.length) histogram = Arrays.copyOf(histogram, other.histogram.length);
+        for (int length = 0; length < other.histogram.length; length++) histogram[length] += other.histogram[length];
+        count += other.count;
+        return this;
+    }
+
+    // Copia independiente, con el mismo orden de llegada: lo que se añada a una no cambia
+    // la otra.
+    public LengthStats copy() {
+        return new LengthStats(k).merge(this);
+    }
+
+    // Copia que se puede compartir: add y merge fallan en ella. Su copy() vuelve a ser
+    // modificable.
+    public LengthStats readOnly() {
+        LengthStats copy = copy();
+        copy.readOnly = true;
+        return copy;
+    }
+
+    private void checkWritable() {
+        if (readOnly) throw new UnsupportedOperationException("Read-only length stats");
+    }
+
+    public long count() {
+        return count;
+    }
+
+    // La cima del heap es la más corta de las k; la más larga se busca entre ellas.
+    public CharSequence longest() {
+        int longest = -1;
+        for (int i = 0; i < heapSize; i++) if (longest < 0 || compare(i, longest) > 0) longest = i;
+        return longest < 0 ? null : heap[longest];
+    }
+
+    // Las k palabras más largas, de mayor a menor longitud.
+    public List<CharSequence> topK() {
+        Integer[] order = new Integer[heapSize];
+        for (int i = 0; i < heapSize; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> -compare(a, b));
+        List<CharSequence> top = new ArrayList<>(heapSize);
+        for (int i : order) top.add(heap[i]);
+        return top;
+    }
+
+    // Número de palabras de cada longitud; el índice es la longitud.
+    public int[] histogram() {
+        int max = histogram.length - 1;
+        while (max > 0 && histogram[max] == 0) max--;
+        return Arrays.copyOf(histogram, max + 1);
+    }
+
+    // Menor longitud L tal que al menos la fracción p de las palabras mide L o menos.
+    public int percentile(double p) {
+        if (p < 0 || p > 1) throw new IllegalArgumentException("Percentile out of [0, 1]: " + p);
+        if (count == 0) throw new IllegalStateException("No words added");
+        long target = Math.max(1, (long) Math.ceil(p * count));
+        long seen = 0;
+        for (int length = 0; length < histogram.length; length++) {
+            seen += histogram[length];
+            if (seen >= target) return length;
+        }
+        return histogram.length - 1;
+    }
+
+    // Orden de llegada de las palabras del heap, en el orden interno del heap.
+    long[] arrivals() {
+        return Arrays.copyOf(arrival, heapSize);
+    }
+
+    private void offer(CharSequence word, long order) {
+        if (heapSize < k) {
+            heap[heapSize] = word;
+            arrival[heapSize] = order;
+            siftUp(heapSize++);
+        } else if (word.length() > heap[0].length()) {
+            heap[0] = word;
+            arrival[0] = order;
+            siftDown(0);
+        }
+    }
+
+    // Orden del heap: primero la más corta y, a igual longitud, la que llegó después.
+    private int compare(int a, int b) {
+        int byLength = Integer.compare(heap[a].length(), heap[b].length());
+        return byLength != 0 ? byLength : Long.compare(arrival[b], arrival[a]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (compare(i, parent) >= 0) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1, right = left + 1;
+            if (left < heapSize && compare(left, smallest) < 0) smallest = left;
+            if (right < heapSize && compare(right, smallest) < 0) smallest = right;
+            if (smallest == i) return;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        CharSequence word = heap[a];
+        heap[a] = heap[b];
+        heap[b] = word;
+        long order = arrival[a];
+        arrival[a] = arrival[b];
+        arrival[b] = order;
+    }
+}
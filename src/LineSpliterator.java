@@ -0,0 +1,58 @@
+import java.nio.ByteBuffer;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+// Recorre las líneas de un buffer (normalmente el fichero mapeado) y se divide por
+// rangos de bytes: el punto medio se adelanta hasta el siguiente '\n', así que cada
+// mitad empieza siempre al principio de una línea y no hace falta un índice previo.
+final class LineSpliterator implements Spliterator<CharSequence> {
+    private static final int MIN_SPLIT = 1 << 16;
+
+    private final ByteBuffer bytes;
+    private int position;
+    private final int end;
+
+    LineSpliterator(ByteBuffer bytes, int position, int end) {
+        this.bytes = bytes;
+        this.position = position;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super CharSequence> action) {
+        while (position < end) {
+            int start = position;
+            boolean ascii = true;
+            int i = start;
+            for (byte b; i < end && (b = bytes.get(i)) != '\n'; i++) if (b < 0) ascii = false;
+            position = i + 1;
+            int stop = i > start && bytes.get(i - 1) == '\r' ? i - 1 : i;
+            if (stop > start) {
+                action.accept(Dictionary.view(bytes, start, stop - start, ascii));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<CharSequence> trySplit() {
+        if (end - position < MIN_SPLIT) return null;
+        int middle = position + (end - position) / 2;
+        while (middle < end && bytes.get(middle - 1) != '\n') middle++;
+        if (middle >= end) return null;
+        LineSpliterator prefix = new LineSpliterator(bytes, position, middle);
+        position = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Math.max(0, end - position) / 8;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+}
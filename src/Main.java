@@ -1,297 +1,138 @@
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import animals.*;
-import jdk.jfr.Period;
 import pets.*;
 
-record Country(String code, String name, String continent, double surfaceArea,
-               int population, double gnp, int capital, List<City> cities) {
-    public record City(int id, String name, int population) { }
-}
-
 public class Main {
     private static List<Country> countries;
     private static List<Movie> movies;
     private static List<Animal> animals;
-    public static void main(String[] args) throws FileNotFoundException {
+    public static void main(String[] args) throws IOException {
         initializeCountries();
         initializeMovies();
         initializeAnimals();
 
         /// DICTIONARY
-        BufferedReader bufferedReader = new BufferedReader(new FileReader("src/0_palabras_todas.txt"));
-        List<String> lines = bufferedReader.lines().toList();
+        DictionarySnapshot snapshot = DictionarySnapshot.open(
+                Path.of("src/0_palabras_todas.txt"), Path.of("src/0_palabras_todas.snapshot"));
+        DictionaryQueries dictionaryQueries = new DictionaryQueries(snapshot);
         // 1. Encontrar las palabras que comienzan con las letras de la "a" a la "m".
-        List<String> list = lines.stream().filter(word -> word.charAt(0) < 'm' ).toList();
+        List<CharSequence> list = dictionaryQueries.aToM();
 
         // 2. Encontrar las palabras que comienzan con la letra "n" hasta el final del diccionario.
-        List<String> nToEnd = lines.stream().filter(word -> word.charAt(0) >= 'n').toList();
+        List<CharSequence> nToEnd = dictionaryQueries.nToEnd();
 
         // 3. Agrupar las palabras del diccionario por sus tres primeras letras.
-        Map<String, List<String>> wordsBy3letters = lines.stream().collect(Collectors.groupingBy(
-                word -> getFirstLetters(word)
-        ));
+        PrefixBuckets wordsBy3letters = dictionaryQueries.byFirstLetters();
 
         // 4. Encontrar los palíndromos en el diccionario. Un palíndromo es una palabra, número, frase u otra secuencia de caracteres que se lee igual de izquierda a derecha y viceversa, como "madam" o "racecar".
-        List<String> palyndroms = lines.stream().filter(word -> isPalindrome(word)).toList();
+        List<CharSequence> palyndroms = dictionaryQueries.palindromes();
 
         // 5. Contar las vocales utilizadas en las palabras.
-        Map<String, Integer> vowelsPerWord = lines.stream().collect(Collectors.toMap(
-                word -> word,
-                word -> vowelsInWord(word)
-        ));
+        VowelCounts vowelsPerWord = dictionaryQueries.vowels();
 
         // 6. Encontrar las palabras que comienzan con la letra "a" y terminan con la letra "z"
-        List<String> aStartzEnd = lines.stream().filter(word -> word.charAt(0) == 'a' && word.charAt(word.length() - 1) == 'z').toList();
+        List<CharSequence> aStartzEnd = dictionaryQueries.aStartZEnd();
 
         // 7. Encontrar la palabra más larga en el diccionario.
-        String s = lines.stream().min((a, b) -> b.length() - a.length()).get();
+        CharSequence s = dictionaryQueries.longest();
 
 
         /// MOVIES
+        MovieQueries movieQueries = new MovieQueries(movies);
         // 1. Obtener el número de películas de cada director
-        Map<String, Long> moviesPerDirector = movies.stream()
-                .flatMap(movie -> movie.directors().stream())
-                .collect(Collectors.groupingBy(
-                        director -> director.name(),
-                        Collectors.counting()
-                ));
+        Map<String, Long> moviesPerDirector = movieQueries.moviesPerDirector();
 
         // 2. Obtener el número de géneros de las películas de cada director
-        Map<String, Long> genresPerDirector = movies.stream()
-                .flatMap(movie -> movie.directors().stream()).distinct()
-                .collect(Collectors.toMap(
-                        director -> director.name(),
-                        director -> movies.stream()
-                                .filter(movie -> movie.directors().contains(director))
-                                .flatMap(movies -> movies.genres().stream())
-                                .distinct().count()
-                ));
+        Map<String, Long> genresPerDirector = movieQueries.genresPerDirector();
 
         // 3. Obtener la lista de películas que solo tienen los géneros "Drama" y "Comedia"
-        List<String> movieDramComedia = movies.stream()
-                .filter(movie -> movie.genres().size() == 2)
-                .filter(movie -> movie.genres().stream()
-                        .allMatch(genre -> genre.name().equals("Drama") || genre.name().equals("Comedia")))
-                .map(Movie::title)
-                .toList();
+        List<String> movieDramComedia = movieQueries.dramaComedia();
 
         // 4. Agrupar las películas por año y enumerarlas
-        Map<Integer, Long> moviesPerYear = movies.stream().collect(Collectors.groupingBy(
-                Movie::year,
-                Collectors.counting()
-        ));
+        MovieTable.YearHistogram moviesPerYear = movieQueries.moviesPerYear();
         System.out.println(moviesPerYear);
 
         // 5. Encontrar el año en el que hay disponibles la mayor cantidad de películas.
-        Integer year = movies.stream().collect(Collectors.groupingBy(
-                        Movie::year,
-                        Collectors.counting()
-                )).entrySet().stream()
-                .max((a, b) -> a.getValue().compareTo(b.getValue()))
-                .get()
-                .getKey();
+        int year = moviesPerYear.peakYear();
 
         /// COUNTRIES
+        CountryQueries countryQueries = new CountryQueries(countries);
         // 1. Encontrar la ciudad más poblada de cada continente.
-        Map<String, String> mostPopulatedCityOfContinent = countries.stream()
-                .map(Country::continent)
-                .distinct()
-                .collect(Collectors.toMap(
-                        continent -> continent,
-                        continent -> countries.stream()
-                                .filter(country -> country.continent().equals(continent))
-                                .flatMap(country -> country.cities().stream())
-                                .max((a, b) -> a.population() - b.population())
-                                .get()
-                                .name()
-                ));
+        Map<String, String> mostPopulatedCityOfContinent = countryQueries.mostPopulatedCityOfContinent();
         // 2. Encontrar la capital más poblada.
-        String capitalPopulated = countries.stream()
-                .flatMap(country -> country.cities().stream()
-                        .filter(city -> city.id() == country.capital()))
-                .max((a, b) -> a.population() - b.population()).get().name();
+        String capitalPopulated = countryQueries.mostPopulatedCapital();
 
         // 3. Encontrar la capital más poblada de cada continente.
-        Map<String, String> capitalPerContinent = countries.stream().map(Country::continent)
-                .distinct()
-                .collect(Collectors.toMap(
-                        continent -> continent,
-                        continent -> countries.stream()
-                                .filter(country -> country.continent().equals(continent))
-                                .flatMap(country -> country.cities().stream()
-                                        .filter(city -> city.id() == country.capital()))
-                                .max((a, b) -> a.population() - b.population())
-                                .get().name()
-                ));
+        Map<String, String> capitalPerContinent = countryQueries.mostPopulatedCapitalOfContinent();
 
         // 4. Ordenar los países por número de ciudades en orden descendente.
-        List<Map.Entry<String, Long>> citiesPerCountry = countries.stream()
-                .collect(Collectors.toMap(
-                        country -> country.name(),
-                        country -> countries.stream()
-                                .filter(c -> c.equals(country))
-                                .flatMap(c -> c.cities().stream())
-                                .count()
-                )).entrySet().stream()
-                .sorted((a, b) -> b.getValue().compareTo(a.getValue())).toList();
-
-        List<String> citiesPerCountryDescendent = countries.stream()
-                .sorted((a, b) -> b.cities().size() - a.cities().size()).map(Country::name).toList();
+        List<Map.Entry<String, Long>> citiesPerCountry = countryQueries.citiesPerCountry();
+
+        List<String> citiesPerCountryDescendent = citiesPerCountry.stream().map(Map.Entry::getKey).toList();
 
         // 5. Ordenar los países por densidad de población en orden descendente, ignorando los países con una población de cero.
-        List<String> densityCountries = countries.stream()
-                .sorted((a, b) -> (int) ((b.population() / b.surfaceArea()) - (a.population() / a.surfaceArea())))
-                .map(Country::name).toList();
+        List<String> densityCountries = countryQueries.byDensity();
 
         // 6. Encontrar el país más rico de cada continente en términos de su PNB (Producto Nacional Bruto).
-        Map<String, String> richestCountryByContinent = countries.stream()
-                .map(Country::continent)
-                .distinct()
-                .collect(Collectors.toMap(
-                        continent -> continent,
-                        continent -> countries.stream()
-                                .filter(c -> c.continent().equals(continent))
-                                .max((a, b) -> (int) (a.gnp() - b.gnp()))
-                                .get().name()
-                ));
+        Map<String, String> richestCountryByContinent = countryQueries.richestCountryByContinent();
 
         // 7. Encontrar la población mínima, máxima y promedio de los países del mundo.
-        IntSummaryStatistics statistics = countries.stream()
-                .mapToInt(Country::population).summaryStatistics();
+        Statistics statistics = countryQueries.populationStatistics();
 
         // 8. Encontrar la población mínima, máxima y promedio de cada continente.
-        Map<String, IntSummaryStatistics> summaryOverContinent = countries.stream()
-                .map(Country::continent)
-                .distinct()
-                .collect(Collectors.toMap(
-                        continent -> continent,
-                        continent -> countries.stream()
-                                .filter(c -> c.continent().equals(continent))
-                                .mapToInt(Country::population).summaryStatistics()
-                ));
+        Map<String, Statistics> summaryOverContinent = countryQueries.populationStatisticsByContinent();
 
         // 9. Encontrar los países con la población mínima y máxima.
-        countries.stream().min((a,b) -> a.population() - b.population()).get().name();
-        countries.stream().max((a,b) -> a.population() - b.population()).get().name();
-
-        countries.stream()
-                .filter(country -> country.name().equals(
-                                countries.stream().min((a, b) -> a.population() - b.population()).get().name()
-                        ) || country.name().equals(
-                                countries.stream().max((a, b) -> a.population() - b.population()).get().name())
-                )
-                .map(Country::name).toList();
+        List<String> populationExtremes = countryQueries.populationExtremes();
 
         // 10. Encontrar los países de cada continente con la población mínima y máxima.
-        Map<String, List<String>> countriesPerContinentWithStats = countries.stream().map(Country::continent).distinct()
-                .collect(Collectors.toMap(
-                        continent -> continent,
-                        continent -> countries.stream()
-                                .filter(c -> c.continent().equals(continent))
-                                .filter(country -> country.name().equals(
-                                                countries.stream()
-                                                        .filter(c -> c.continent().equals(continent))
-                                                        .min((a, b) -> a.population() - b.population())
-                                                        .get().name()
-                                        ) || country.name().equals(
-                                                countries.stream()
-                                                        .filter(c -> c.continent().equals(continent))
-                                                        .max((a, b) -> a.population() - b.population())
-                                                        .get().name())
-                                )
-                                .map(Country::name).toList()
-                ));
+        Map<String, List<String>> countriesPerContinentWithStats = countryQueries.populationExtremesByContinent();
 
         // 11. Agrupar los países por continente y luego ordena los países dentro de cada continente por número de ciudades.
-        Map<String, List<String>> agrupation = countries.stream()
-                .map(Country::continent)
-                .distinct()
-                .collect(Collectors.toMap(
-                        continent -> continent,
-                        continent -> countries.stream()
-                                .filter(country -> country.continent().equals(continent))
-                                .sorted((a, b) -> a.cities().size() - b.cities().size())
-                                .map(Country::name)
-                                .toList()
-                ));
+        Map<String, List<String>> agrupation = countryQueries.byCitiesByContinent();
 
         // 12. Encontrar las ciudades con la población mínima y máxima en cada país.
-        Map<String, List<String>> citiesMinMax = countries.stream().collect(Collectors.toMap(
-                        country -> country.name(),
-                        country -> country.cities().stream()
-                                .filter(city ->
-                                        city.name().equals(country.cities().stream()
-                                                .max((a, b) -> a.population() - b.population()).get().name()) ||
-                                                city.name().equals(country.cities().stream()
-                                                        .min((a, b) -> a.population() - b.population()).get().name())
-                                ).map(Country.City::name).toList()
-                )
-        );
+        Map<String, List<String>> citiesMinMax = countryQueries.cityExtremesByCountry();
 
         // 13. Encontrar el valor mínimo, máximo, promedio y desviación estándar de los valores de PNB.
-        DoubleSummaryStatistics doubleSummaryStatistics = countries.stream().mapToDouble(Country::gnp).summaryStatistics();
+        Statistics gnpStatistics = countryQueries.gnpStatistics();
+        gnpStatistics.standardDeviation();
         // No voy a dimitir.
 
 
         /// ANIMALS
+        AnimalQueries animalQueries = new AnimalQueries(animals);
         //1. Obtener una lista de animales salvajes
-        List<Animal> wildAnimals = animals.stream().filter(animal -> !(animal instanceof Pet)).toList();
+        Map<Boolean, List<Animal>> animalsByPet = animalQueries.byPet();
+        List<Animal> wildAnimals = animalsByPet.get(false);
 
         //2. Obtener una lista de mascotas
-        List<Animal> pets = animals.stream().filter(animal -> animal instanceof Pet).toList();
+        List<Animal> pets = animalsByPet.get(true);
 
         //3. Encontrar el animal con el mayor número de patas
-        Animal mostLeggedAnimal = animals.stream().max((a, b) -> a.legs() - b.legs()).get();
+        Animal mostLeggedAnimal = animalQueries.mostLegged();
 
         //4. Obtener una lista de 100 animales al azar
-        List<Animal> hundredAnimals = animals.stream()
-                .sorted((a, b) -> new Random().nextInt())
-                .limit(100)
-                .toList();
+        List<Animal> hundredAnimals = animalQueries.hundredAtRandom();
 
         //5. Encontrar el número total de patas
-        long totalOfLegsSummary = animals.stream().mapToInt(Animal::legs).summaryStatistics().getSum();
-        int totalOfLegs = animals.stream().mapToInt(Animal::legs).sum();
+        long totalOfLegs = animalQueries.totalLegs();
 
         //6. Agrupar los animales según el número de patas
-        Map<Integer, List<Animal>> animalsPerLegs = animals.stream().collect(Collectors.groupingBy(
-                Animal::legs
-        ));
+        Map<Integer, List<Animal>> animalsPerLegs = animalQueries.byLegs();
 
         //7. Contar el número de animales en cada especie
-        Map<String, Long> animalsPerSpecie = animals.stream().collect(Collectors.groupingBy(
-                animal -> animal.getClass().getSimpleName(),
-                Collectors.counting()
-        ));
+        Map<String, Long> animalsPerSpecie = animalQueries.perSpecies();
 
         //8. Contar el número de especies
-        int numberOfSpecies = animals.stream().collect(Collectors.groupingBy(
-                animal -> animal.getClass()
-        )).size();
-        long numberOfSpecies2 = animals.stream().map(animal -> animal.getClass()).distinct().count();
-
-    }
-
-    private static int vowelsInWord(String word) {
-        Set<Character> vowels = Set.of('a', 'e', 'i', 'o', 'u');
-        int numberOfVowels = 0;
-        for (int i = 0; i < word.length(); i++) if (vowels.contains(word.charAt(i))) numberOfVowels++;
-        return numberOfVowels;
-    }
-
-    private static boolean isPalindrome(String word) {
-        for (int i = 0; i < word.length(); i++) if (word.charAt(i) != word.charAt(word.length() - 1 - i)) return false;
-        return true;
-    }
+        int numberOfSpecies = animalQueries.numberOfSpecies();
 
-    private static String getFirstLetters(String word) {
-        if (word.length() < 4) return word;
-        return word.substring(0, 3);
+        /// MÉTRICAS (con -Dqueries.metrics=true)
+        if (QueryMetrics.isEnabled()) System.out.print(QueryMetrics.summary());
     }
 
     private static void initializeMovies() {
@@ -0,0 +1,119 @@
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Catálogo que mantiene los agregados de las consultas de películas al añadir o
+// quitar películas. Cada cambio cuesta O(directores) en películas por director y
+// O(géneros × directores) en géneros por director, más O(log años) para el año con
+// más películas. Los contadores de géneros por director llevan referencias: un género
+// deja de contar cuando desaparece la última película que lo aportaba.
+//
+// Las escrituras se serializan entre sí y cada una publica un Snapshot inmutable por
+// una referencia volatile. Sus mapas son PersistentIntMap: la versión nueva copia solo
+// el camino de cada clave que cambia y comparte el resto con la anterior, así que
+// publicar cuesta O(claves tocadas), no O(catálogo). snapshot() y las consultas
+// puntuales son una lectura volatile sin cerrojo: nunca bloquean a los escritores ni
+// mezclan estados.
+public final class MovieCatalog {
+    public record Snapshot(Map<Integer, Long> moviesPerDirector, Map<Integer, Integer> genresPerDirector,
+                           Map<Integer, Long> moviesPerYear, Integer peakYear, int movies) { }
+
+    private record YearCount(int year, long count) { }
+
+    private static final Comparator<YearCount> BY_COUNT = Comparator.comparingLong(YearCount::count).reversed()
+            .thenComparingInt(YearCount::year);
+
+    private final Map<Integer, Movie> movies = new ConcurrentHashMap<>();
+    private final Map<Integer, Movie.Director> directors = new ConcurrentHashMap<>();
+    // Solo los escritores tocan estas estructuras; los lectores ven la última versión
+    // de los mapas a través de snapshot.
+    private final Map<Integer, Map<Integer, Integer>> genreReferences = new HashMap<>();
+    private final TreeSet<YearCount> years = new TreeSet<>(BY_COUNT);
+    private PersistentIntMap<Long> moviesPerDirector = PersistentIntMap.empty();
+    private PersistentIntMap<Integer> genresPerDirector = PersistentIntMap.empty();
+    private PersistentIntMap<Long> moviesPerYear = PersistentIntMap.empty();
+    private volatile Snapshot snapshot = new Snapshot(moviesPerDirector, genresPerDirector, moviesPerYear, null, 0);
+
+    public synchronized void add(Movie movie) {
+        Objects.requireNonNull(movie);
+        if (movies.putIfAbsent(movie.id(), movie) != null)
+            throw new IllegalArgumentException("Duplicate movie id: " + movie.id());
+        apply(movie, 1);
+    }
+
+    public synchronized boolean remove(int movieId) {
+        Movie movie = movies.remove(movieId);
+        if (movie == null) return false;
+        apply(movie, -1);
+        return true;
+    }
+
+    private void apply(Movie movie, int delta) {
+        List<Movie.Genre> genres = movie.genres().stream().distinct().toList();
+        for (Movie.Director director : movie.directors().stream().distinct().toList()) {
+            int id = director.id();
+            directors.putIfAbsent(id, director);
+            long movieCount = moviesPerDirector.getOrDefault(id, 0L) + delta;
+            moviesPerDirector = movieCount == 0 ? moviesPerDirector.without(id) : moviesPerDirector.with(id, movieCount);
+
+            Map<Integer, Integer> references = genreReferences.computeIfAbsent(id, key -> new HashMap<>());
+            for (Movie.Genre genre : genres) {
+                int count = references.merge(genre.id(), delta, Integer::sum);
+                if (count == 0) references.remove(genre.id());
+            }
+            if (references.isEmpty()) {
+                genreReferences.remove(id);
+                genresPerDirector = genresPerDirector.without(id);
+            } else genresPerDirector = genresPerDirector.with(id, references.size());
+            if (movieCount == 0) directors.remove(id);
+        }
+
+        int year = movie.year();
+        long before = moviesPerYear.getOrDefault(year, 0L);
+        long after = before + delta;
+        if (before > 0) years.remove(new YearCount(year, before));
+        if (after > 0) {
+            years.add(new YearCount(year, after));
+            moviesPerYear = moviesPerYear.with(year, after);
+        } else moviesPerYear = moviesPerYear.without(year);
+        snapshot = new Snapshot(moviesPerDirector, genresPerDirector, moviesPerYear,
+                years.isEmpty() ? null : years.first().year(), movies.size());
+    }
+
+    public int size() {
+        return movies.size();
+    }
+
+    public Movie movie(int id) {
+        return movies.get(id);
+    }
+
+    public Movie.Director director(int id) {
+        return directors.get(id);
+    }
+
+    public long moviesOfDirector(int directorId) {
+        return snapshot.moviesPerDirector().getOrDefault(directorId, 0L);
+    }
+
+    public int genresOfDirector(int directorId) {
+        return snapshot.genresPerDirector().getOrDefault(directorId, 0);
+    }
+
+    public long moviesInYear(int year) {
+        return snapshot.moviesPerYear().getOrDefault(year, 0L);
+    }
+
+    // Año con más películas (a igualdad, el más antiguo), o null si el catálogo está vacío.
+    public Integer peakYear() {
+        return snapshot.peakYear();
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+}
@@ -0,0 +1,220 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+// Índices invertidos director -> películas y género -> películas, construidos en una
+// sola pasada. Las listas guardan ordinales (posición de la película en la lista
+// original): por director un int[] ordenado, que suele ser corto, y por género un
+// BitSet, porque hay pocos géneros y cada uno cubre buena parte del catálogo. Además
+// se guarda la máscara de géneros de cada película, así que filtrar por géneros o
+// contar los géneros distintos de un director es operar con un long por película.
+//
+// Los ids de director y de género no indexan nada directamente: IdSlots les da un hueco
+// denso por orden de aparición y las listas se guardan por hueco, así que ids dispersos
+// o enormes no cuestan memoria. El bit de un género en las máscaras es su hueco.
+//
+// La máscara solo tiene sitio para los huecos de 0 a 63 (como GenreSet). Las películas
+// con algún género de hueco mayor se marcan en wide: los filtros las tienen en cuenta y
+// el recuento por director mira esos géneros en sus BitSets.
+public final class MovieIndex {
+    private final List<Movie> movies;
+    private final Movie.Director[] directors;
+    private final Movie.Genre[] genres;
+    private final IdSlots directorSlots;
+    private final int[][] byDirector;
+    private final int[] directorSizes;
+    private final IdSlots genreSlots;
+    private final BitSet[] byGenre;
+    private final long[] genreMasks;
+    private final BitSet wide;
+
+    private MovieIndex(List<Movie> movies, Movie.Director[] directors, Movie.Genre[] genres, IdSlots directorSlots,
+                       int[][] byDirector, int[] directorSizes, IdSlots genreSlots, BitSet[] byGenre, long[] genreMasks,
+                       BitSet wide) {
+        this.movies = movies;
+        this.directors = directors;
+        this.genres = genres;
+        this.directorSlots = directorSlots;
+        this.byDirector = byDirector;
+        this.directorSizes = directorSizes;
+        this.genreSlots = genreSlots;
+        this.byGenre = byGenre;
+        this.genreMasks = genreMasks;
+        this.wide = wide;
+    }
+
+    public static MovieIndex build(List<Movie> movies) {
+        Movie.Director[] directors = new Movie.Director[16];
+        Movie.Genre[] genres = new Movie.Genre[16];
+        IdSlots directorSlots = new IdSlots();
+        int[][] byDirector = new int[16][];
+        int[] directorSizes = new int[16];
+        IdSlots genreSlots = new IdSlots();
+        BitSet[] byGenre = new BitSet[16];
+        long[] genreMasks = new long[movies.size()];
+        BitSet wide = new BitSet();
+        for (int ordinal = 0; ordinal < movies.size(); ordinal++) {
+            Movie movie = movies.get(ordinal);
+            for (Movie.Director director : movie.directors()) {
+                // Los huecos se dan de uno en uno: como mucho hace falta el siguiente.
+                int slot = directorSlots.add(director.id());
+                if (slot == directors.length) {
+                    directors = Arrays.copyOf(directors, slot * 2);
+                    byDirector = Arrays.copyOf(byDirector, directors.length);
+                    directorSizes = Arrays.copyOf(directorSizes, directors.length);
+                }
+                if (directors[slot] == null) {
+                    directors[slot] = director;
+                    byDirector[slot] = new int[4];
+                }
+                int size = directorSizes[slot];
+                if (size > 0 && byDirector[slot][size - 1] == ordinal) continue;
+                if (size == byDirector[slot].length) byDirector[slot] = Arrays.copyOf(byDirector[slot], size * 2);
+                byDirector[slot][size] = ordinal;
+                directorSizes[slot]++;
+            }
+            for (Movie.Genre genre : movie.genres()) {
+                int slot = genreSlots.add(genre.id());
+                if (slot == genres.length) {
+                    genres = Arrays.copyOf(genres, slot * 2);
+                    byGenre = Arrays.copyOf(byGenre, genres.length);
+                }
+                if (genres[slot] == null) {
+                    genres[slot] = genre;
+                    byGenre[slot] = new BitSet();
+                }
+                byGenre[slot].set(ordinal);
+                if (slot < Long.SIZE) genreMasks[ordinal] |= 1L << slot;
+                else wide.set(ordinal);
+            }
+        }
+        return new MovieIndex(movies, directors, genres, directorSlots, byDirector, directorSizes, genreSlots, byGenre, genreMasks, wide);
+    }
+
+    public List<Movie.Director> directors() {
+        return present(directors);
+    }
+
+    public List<Movie.Genre> genres() {
+        return present(genres);
+    }
+
+    // Género con ese nombre, o null si ninguna película lo tiene.
+    public Movie.Genre genre(String name) {
+        for (Movie.Genre genre : genres) if (genre != null && genre.name().equals(name)) return genre;
+        return null;
+    }
+
+    // Conjunto con esos géneros. Solo caben los que tienen hueco en la máscara: un género
+    // que ninguna película tiene, o de hueco 64 o mayor, se rechaza.
+    public GenreSet genreSet(Movie.Genre... genres) {
+        return genreSet(List.of(genres));
+    }
+
+    public GenreSet genreSet(Collection<Movie.Genre> genres) {
+        long mask = 0;
+        for (Movie.Genre genre : genres) {
+            long bit = genreBit(genre);
+            if (bit == 0) throw new IllegalArgumentException("Genre not among the first 64 of the index: " + genre);
+            mask |= bit;
+        }
+        return new GenreSet(this, mask);
+    }
+
+    // Bit del género en las máscaras, o 0 si no tiene.
+    long genreBit(Movie.Genre genre) {
+        int slot = genreSlots.slot(genre.id());
+        return slot >= 0 && slot < Long.SIZE ? 1L << slot : 0;
+    }
+
+    // Películas cuyos géneros son exactamente genres.
+    public List<Movie> exactly(GenreSet genres) {
+        long mask = mask(genres);
+        return select(true, movie -> movie == mask);
+    }
+
+    // Películas que tienen, al menos, todos los géneros dados.
+    public List<Movie> withAll(GenreSet genres) {
+        long mask = mask(genres);
+        return select(false, movie -> (movie & mask) == mask);
+    }
+
+    // Películas sin ningún género fuera de genres.
+    public List<Movie> within(GenreSet genres) {
+        long mask = mask(genres);
+        return select(true, movie -> (movie & ~mask) == 0);
+    }
+
+    public List<Movie> withAny(GenreSet genres) {
+        long mask = mask(genres);
+        return select(false, movie -> (movie & mask) != 0);
+    }
+
+    private long mask(GenreSet genres) {
+        if (genres.index() != this) throw new IllegalArgumentException("Genre set of another index");
+        return genres.mask();
+    }
+
+    // Un GenreSet nunca contiene huecos de 64 en adelante: si la película tiene alguno,
+    // tiene géneros fuera del conjunto y los filtros "exactly" y "within" la descartan.
+    private List<Movie> select(boolean skipWide, LongPredicate predicate) {
+        List<Movie> result = new ArrayList<>();
+        for (int i = 0; i < genreMasks.length; i++)
+            if (predicate.test(genreMasks[i]) && !(skipWide && wide.get(i))) result.add(movies.get(i));
+        return result;
+    }
+
+    public long movieCount(int directorId) {
+        int slot = directorSlots.slot(directorId);
+        return slot < 0 ? 0 : directorSizes[slot];
+    }
+
+    public long genreCount(int directorId) {
+        int slot = directorSlots.slot(directorId);
+        if (slot < 0) return 0;
+        int size = directorSizes[slot];
+        int[] ordinals = byDirector[slot];
+        long mask = 0;
+        boolean anyWide = false;
+        for (int i = 0; i < size; i++) {
+            mask |= genreMasks[ordinals[i]];
+            anyWide |= wide.get(ordinals[i]);
+        }
+        long count = Long.bitCount(mask);
+        if (anyWide)
+            for (int genre = Long.SIZE; genre < genreSlots.size(); genre++)
+                if (contains(byGenre[genre], ordinals, size)) count++;
+        return count;
+    }
+
+    private static boolean contains(BitSet genre, int[] ordinals, int size) {
+        for (int i = 0; i < size; i++) if (genre.get(ordinals[i])) return true;
+        return false;
+    }
+
+    public List<Movie> moviesOfDirector(int directorId) {
+        int slot = directorSlots.slot(directorId);
+        if (slot < 0) return List.of();
+        List<Movie> result = new ArrayList<>(directorSizes[slot]);
+        for (int i = 0; i < directorSizes[slot]; i++) result.add(movies.get(byDirector[slot][i]));
+        return result;
+    }
+
+    public List<Movie> moviesOfGenre(int genreId) {
+        int slot = genreSlots.slot(genreId);
+        if (slot < 0) return List.of();
+        BitSet ordinals = byGenre[slot];
+        List<Movie> result = new ArrayList<>(ordinals.cardinality());
+        for (int i = ordinals.nextSetBit(0); i >= 0; i = ordinals.nextSetBit(i + 1)) result.add(movies.get(i));
+        return result;
+    }
+
+    private static <T> List<T> present(T[] byId) {
+        List<T> result = new ArrayList<>();
+        for (T value : byId) if (value != null) result.add(value);
+        return result;
+    }
+}
@@ -0,0 +1,234 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+// Carga masiva del catálogo desde CSV. El fichero se mapea por ventanas de hasta 2 GB;
+// una pasada secuencial sobre los bytes marca dónde acaba cada fila (un '\n' fuera de
+// comillas) y las filas se parsean después, en paralelo si se pide, directamente a
+// Movie. Géneros y directores pasan por una tabla por id, de modo que todas las
+// películas comparten la misma instancia (si un id aparece con otro nombre, gana el
+// primero que se vio).
+//
+// Formato, con cabecera opcional:
+//   id,title,year,imdb,genres,directors
+//   0,"Star Wars: A New Hope",1977,tt0076759,3:Ciencia Ficción|4:Aventura,0:George:Lucas
+// Los campos pueden ir entre comillas ("" para una comilla literal) y entonces pueden
+// contener comas y saltos de línea; géneros y directores se separan con '|' y sus
+// partes con ':', y dentro de un nombre '\', '|' y ':' se escriben precedidos de '\'.
+public final class MovieLoader {
+    static final String HEADER = "id,title,year,imdb,genres,directors";
+    private static final long WINDOW = Integer.MAX_VALUE;
+
+    public record Result(List<Movie> movies, long nanos) {
+        public double rowsPerSecond() {
+            return movies.size() / (nanos / 1e9);
+        }
+    }
+
+    private final Map<Integer, Movie.Genre> genres = new ConcurrentHashMap<>();
+    private final Map<Integer, Movie.Director> directors = new ConcurrentHashMap<>();
+
+    public Result load(Path path, boolean parallel) throws IOException {
+        long start = System.nanoTime();
+        List<Movie> movies = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long offset = 0; offset < size; ) {
+                long length = Math.min(WINDOW, size - offset);
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                boolean last = offset + length == size;
+                long[] rows = rows(bytes, last);
+                int count = (int) rows[0];
+                IntStream indexes = parallel ? IntStream.range(1, count + 1).parallel() : IntStream.range(1, count + 1);
+                movies.addAll(indexes
+                        .mapToObj(i -> Dictionary.view(bytes, (int) (rows[i] >>> 32), (int) rows[i] & Integer.MAX_VALUE,
+                                (rows[i] & 1L << 31) == 0))
+                        .filter(line -> !HEADER.contentEquals(line))
+                        .map(this::parse)
+                        .toList());
+                long consumed = last ? length : rows[count + 1];
+                if (consumed == 0) throw new IOException("Row too large to map: " + path + " at byte " + offset);
+                offset += consumed;
+            }
+        }
+        return new Result(movies, System.nanoTime() - start);
+    }
+
+    // Filas de la ventana: rows[0] es cuántas hay, rows[1..count] cada una como
+    // inicio << 32 | longitud (bit 31 si no es ASCII) y rows[count + 1] dónde empieza la
+    // fila que queda a medias al final de la ventana, que se relee en la siguiente.
+    private static long[] rows(ByteBuffer bytes, boolean last) {
+        long[] rows = new long[1024];
+        int count = 0;
+        int limit = bytes.limit();
+        int start = 0;
+        boolean ascii = true;
+        boolean quoted = false;
+        for (int i = 0; i <= limit; i++) {
+            byte b;
+            if (i < limit) {
+                b = bytes.get(i);
+                if (b == '"') quoted = !quoted;
+                else if (b < 0) ascii = false;
+                if (b != '\n' || quoted) continue;
+            } else if (!last) break;
+            int end = i > start && bytes.get(i - 1) == '\r' ? i - 1 : i;
+            if (end > start) {
+                if (count + 2 >= rows.length) rows = Arrays.copyOf(rows, rows.length * 2);
+                rows[++count] = (long) start << 32 | (ascii ? 0 : 1L << 31) | (end - start);
+            }
+            start = i + 1;
+            ascii = true;
+        }
+        rows[0] = count;
+        rows[count + 1] = start;
+        return rows;
+    }
+
+    public static void write(Path path, List<Movie> movies) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Movie movie : movies) {
+                writer.write(movie.id() + "," + quote(movie.title()) + "," + movie.year() + "," + quote(movie.imdb()) + ",");
+                List<String> genres = new ArrayList<>();
+                for (Movie.Genre genre : movie.genres()) genres.add(genre.id() + ":" + escape(genre.name()));
+                List<String> directors = new ArrayList<>();
+                for (Movie.Director director : movie.directors())
+                    directors.add(director.id() + ":" + escape(director.name()) + ":" + escape(director.imdb()));
+                writer.write(quote(String.join("|", genres)) + "," + quote(String.join("|", directors)));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String quote(String field) {
+        boolean plain = true;
+        for (int i = 0; i < field.length() && plain; i++) {
+            char c = field.charAt(i);
+            plain = c != ',' && c != '"' && c != '\n' && c != '\r';
+        }
+        return plain ? field : '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    private static String escape(String name) {
+        return name.replace("\\", "\\\\").replace("|", "\\|").replace(":", "\\:");
+    }
+
+    private static String unescape(String name, int start, int end) {
+        StringBuilder value = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = name.charAt(i);
+            if (c == '\\' && i + 1 < end) c = name.charAt(++i);
+            value.append(c);
+        }
+        return value.toString();
+    }
+
+    // Posición del siguiente separador no escapado, o -1.
+    private static int indexOf(String field, char separator, int from) {
+        for (int i = from; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\\') i++;
+            else if (c == separator) return i;
+        }
+        return -1;
+    }
+
+    Movie parse(CharSequence line) {
+        Fields fields = new Fields(line);
+        int id = fields.nextInt();
+        String title = fields.next();
+        int year = fields.nextInt();
+        String imdb = fields.next();
+        List<Movie.Genre> movieGenres = new ArrayList<>(2);
+        for (String genre : split(fields.next(), '|')) {
+            int colon = indexOf(genre, ':', 0);
+            int genreId = Integer.parseInt(genre, 0, colon, 10);
+            movieGenres.add(genres.computeIfAbsent(genreId, key -> new Movie.Genre(key,
+                    unescape(genre, colon + 1, genre.length()))));
+        }
+        List<Movie.Director> movieDirectors = new ArrayList<>(1);
+        for (String director : split(fields.next(), '|')) {
+            int first = indexOf(director, ':', 0);
+            int second = indexOf(director, ':', first + 1);
+            int directorId = Integer.parseInt(director, 0, first, 10);
+            movieDirectors.add(directors.computeIfAbsent(directorId, key -> new Movie.Director(key,
+                    unescape(director, first + 1, second), unescape(director, second + 1, director.length()))));
+        }
+        return new Movie(id, title, year, imdb, List.copyOf(movieGenres), List.copyOf(movieDirectors));
+    }
+
+    private static List<String> split(String field, char separator) {
+        List<String> parts = new ArrayList<>();
+        if (field.isEmpty()) return parts;
+        int start = 0;
+        for (int i = indexOf(field, separator, 0); i >= 0; i = indexOf(field, separator, start)) {
+            parts.add(field.substring(start, i));
+            start = i + 1;
+        }
+        parts.add(field.substring(start));
+        return parts;
+    }
+
+    // Cursor sobre los campos de una línea CSV.
+    private static final class Fields {
+        private final CharSequence line;
+        private int position;
+
+        Fields(CharSequence line) {
+            this.line = Objects.requireNonNull(line);
+        }
+
+        int nextInt() {
+            int start = position;
+            int end = end(start);
+            position = end + 1;
+            try {
+                return Integer.parseInt(line, start, end, 10);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number in row: " + line, e);
+            }
+        }
+
+        String next() {
+            if (position > line.length()) throw new IllegalArgumentException("Missing field in row: " + line);
+            if (position < line.length() && line.charAt(position) == '"') {
+                StringBuilder value = new StringBuilder();
+                int i = position + 1;
+                while (true) {
+                    if (i >= line.length()) throw new IllegalArgumentException("Unterminated quote in row: " + line);
+                    char c = line.charAt(i++);
+                    if (c != '"') value.append(c);
+                    else if (i < line.length() && line.charAt(i) == '"') value.append(line.charAt(i++));
+                    else break;
+                }
+                position = i + 1;
+                return value.toString();
+            }
+            int start = position;
+            int end = end(start);
+            position = end + 1;
+            return line.subSequence(start, end).toString();
+        }
+
+        private int end(int start) {
+            int end = start;
+            while (end < line.length() && line.charAt(end) != ',') end++;
+            return end;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Las consultas de películas de Main sobre una lista cualquiera. El índice invertido y
+// la tabla en columnas se construyen una vez, al crear el objeto.
+public final class MovieQueries {
+    private final MovieIndex movieIndex;
+    private final MovieTable movieTable;
+    // null si no hay caché.
+    private final QueryCache cache;
+    // Copia inmutable de la lista: identifica estos datos en la caché.
+    private final List<Movie> movies;
+
+    public MovieQueries(List<Movie> movies) {
+        this(movies, null);
+    }
+
+    // Con caché, cada consulta se calcula una vez por conjunto de datos mientras quepa en ella.
+    public MovieQueries(List<Movie> movies, QueryCache cache) {
+        this.movies = List.copyOf(movies);
+        this.movieIndex = MovieIndex.build(this.movies);
+        this.movieTable = MovieTable.from(this.movies);
+        this.cache = cache;
+    }
+
+    // 1. Número de películas de cada director.
+    public Map<String, Long> moviesPerDirector() {
+        return run("1 moviesPerDirector", () -> movieIndex.directors().stream()
+                .collect(Collectors.toMap(
+                        director -> director.name(),
+                        director -> movieIndex.movieCount(director.id()),
+                        Long::sum
+                )));
+    }
+
+    // 2. Número de géneros de las películas de cada director.
+    public Map<String, Long> genresPerDirector() {
+        return run("2 genresPerDirector", () -> movieIndex.directors().stream()
+                .collect(Collectors.toMap(
+                        director -> director.name(),
+                        director -> movieIndex.genreCount(director.id())
+                )));
+    }
+
+    // 3. Películas que solo tienen los géneros "Drama" y "Comedia" (ninguna si falta alguno).
+    public List<String> dramaComedia() {
+        return run("3 dramaComedia", () -> {
+            Movie.Genre drama = movieIndex.genre("Drama");
+            Movie.Genre comedia = movieIndex.genre("Comedia");
+            if (drama == null || comedia == null) return List.<String>of();
+            return movieIndex.exactly(movieIndex.genreSet(drama, comedia)).stream().map(Movie::title).toList();
+        });
+    }
+
+    // 4. Películas por año.
+    public MovieTable.YearHistogram moviesPerYear() {
+        return run("4 moviesPerYear", () -> movieTable.yearHistogram(false));
+    }
+
+    // 5. Año con más películas.
+    public int peakYear() {
+        return run("5 peakYear", () -> movieTable.peakYear(false));
+    }
+
+    private <T> T run(String query, Supplier<T> body) {
+        if (cache == null) return QueryMetrics.run("movies", query, movieTable.size(), body);
+        return cache.get("movies", query, movies,
+                () -> QueryMetrics.run("movies", query, movieTable.size(), body));
+    }
+
+    // Todas las consultas por número, en orden.
+    public Map<String, Supplier<Object>> all() {
+        Map<String, Supplier<Object>> queries = new LinkedHashMap<>();
+        queries.put("1 moviesPerDirector", this::moviesPerDirector);
+        queries.put("2 genresPerDirector", this::genresPerDirector);
+        queries.put("3 dramaComedia", this::dramaComedia);
+        queries.put("4 moviesPerYear", this::moviesPerYear);
+        queries.put("5 peakYear", this::peakYear);
+        return queries;
+    }
+}
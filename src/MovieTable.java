@@ -0,0 +1,190 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.stream.IntStream;
+
+// Catálogo en columnas (struct-of-arrays): un int[] por campo numérico, títulos e
+// imdb codificados contra un diccionario de Strings y géneros/directores en formato
+// CSR (offsets + valores con los ids). Las analíticas por año recorren solo el int[]
+// de años, sin seguir punteros ni encajar claves en Integer.
+public final class MovieTable {
+    // Por encima de este rango de años no se cuenta en un int[] por año (cada hoja del
+    // recorrido paralelo tendría el suyo): se ordena una copia de los años.
+    private static final int DENSE_SPAN = 1 << 16;
+
+    private final int[] id;
+    private final int[] year;
+    private final int[] title;
+    private final String[] titles;
+    private final int[] imdb;
+    private final String[] imdbs;
+    private final int[] genreOffsets;
+    private final int[] genreValues;
+    private final int[] directorOffsets;
+    private final int[] directorValues;
+
+    private MovieTable(int[] id, int[] year, int[] title, String[] titles, int[] imdb, String[] imdbs,
+                       int[] genreOffsets, int[] genreValues, int[] directorOffsets, int[] directorValues) {
+        this.id = id;
+        this.year = year;
+        this.title = title;
+        this.titles = titles;
+        this.imdb = imdb;
+        this.imdbs = imdbs;
+        this.genreOffsets = genreOffsets;
+        this.genreValues = genreValues;
+        this.directorOffsets = directorOffsets;
+        this.directorValues = directorValues;
+    }
+
+    public static MovieTable from(List<Movie> movies) {
+        int size = movies.size();
+        int[] id = new int[size];
+        int[] year = new int[size];
+        int[] title = new int[size];
+        int[] imdb = new int[size];
+        int[] genreOffsets = new int[size + 1];
+        int[] directorOffsets = new int[size + 1];
+        Map<String, Integer> titleCodes = new HashMap<>();
+        Map<String, Integer> imdbCodes = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Movie movie = movies.get(i);
+            id[i] = movie.id();
+            year[i] = movie.year();
+            title[i] = titleCodes.computeIfAbsent(movie.title(), key -> titleCodes.size());
+            imdb[i] = imdbCodes.computeIfAbsent(movie.imdb(), key -> imdbCodes.size());
+            genreOffsets[i + 1] = genreOffsets[i] + movie.genres().size();
+            directorOffsets[i + 1] = directorOffsets[i] + movie.directors().size();
+        }
+        int[] genreValues = new int[genreOffsets[size]];
+        int[] directorValues = new int[directorOffsets[size]];
+        for (int i = 0; i < size; i++) {
+            Movie movie = movies.get(i);
+            int g = genreOffsets[i];
+            for (Movie.Genre genre : movie.genres()) genreValues[g++] = genre.id();
+            int d = directorOffsets[i];
+            for (Movie.Director director : movie.directors()) directorValues[d++] = director.id();
+        }
+        return new MovieTable(id, year, title, decode(titleCodes), imdb, decode(imdbCodes),
+                genreOffsets, genreValues, directorOffsets, directorValues);
+    }
+
+    private static String[] decode(Map<String, Integer> codes) {
+        String[] values = new String[codes.size()];
+        codes.forEach((value, code) -> values[code] = value);
+        return values;
+    }
+
+    public int size() {
+        return id.length;
+    }
+
+    public int id(int row) {
+        return id[row];
+    }
+
+    public int year(int row) {
+        return year[row];
+    }
+
+    public String title(int row) {
+        return titles[title[row]];
+    }
+
+    public String imdb(int row) {
+        return imdbs[imdb[row]];
+    }
+
+    public int[] genreIds(int row) {
+        return Arrays.copyOfRange(genreValues, genreOffsets[row], genreOffsets[row + 1]);
+    }
+
+    public int[] directorIds(int row) {
+        return Arrays.copyOfRange(directorValues, directorOffsets[row], directorOffsets[row + 1]);
+    }
+
+    // Películas por año: años distintos en orden creciente y cuántas películas tiene cada uno.
+    public record YearHistogram(int[] years, int[] counts) {
+        public int count(int year) {
+            int index = Arrays.binarySearch(years, year);
+            return index >= 0 ? counts[index] : 0;
+        }
+
+        // Año con más películas; a igualdad, el más antiguo.
+        public int peakYear() {
+            if (counts.length == 0) throw new IllegalStateException("Empty histogram");
+            int peak = 0;
+            for (int i = 1; i < counts.length; i++) if (counts[i] > counts[peak]) peak = i;
+            return years[peak];
+        }
+
+        // Copia con sus propios arrays: los de un record se pueden modificar desde fuera.
+        public YearHistogram copy() {
+            return new YearHistogram(years.clone(), counts.clone());
+        }
+
+        @Override
+        public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "{", "}");
+            for (int i = 0; i < years.length; i++) joiner.add(years[i] + "=" + counts[i]);
+            return joiner.toString();
+        }
+    }
+
+    public YearHistogram yearHistogram(boolean parallel) {
+        if (year.length == 0) return new YearHistogram(new int[0], new int[0]);
+        IntStream rows = parallel ? IntStream.range(0, year.length).parallel() : IntStream.range(0, year.length);
+        int[] bounds = rows.collect(() -> new int[]{Integer.MAX_VALUE, Integer.MIN_VALUE},
+                (b, row) -> {
+                    b[0] = Math.min(b[0], year[row]);
+                    b[1] = Math.max(b[1], year[row]);
+                },
+                (a, b) -> {
+                    a[0] = Math.min(a[0], b[0]);
+                    a[1] = Math.max(a[1], b[1]);
+                });
+        int min = bounds[0];
+        long span = (long) bounds[1] - min + 1;
+        if (span > DENSE_SPAN) return sparseHistogram(parallel);
+        int width = (int) span;
+        rows = parallel ? IntStream.range(0, year.length).parallel() : IntStream.range(0, year.length);
+        int[] dense = rows.collect(() -> new int[width],
+                (histogram, row) -> histogram[year[row] - min]++,
+                (a, b) -> {
+                    for (int i = 0; i < width; i++) a[i] += b[i];
+                });
+        int distinct = 0;
+        for (int count : dense) if (count > 0) distinct++;
+        int[] years = new int[distinct];
+        int[] counts = new int[distinct];
+        for (int i = 0, j = 0; i < width; i++) {
+            if (dense[i] == 0) continue;
+            years[j] = min + i;
+            counts[j++] = dense[i];
+        }
+        return new YearHistogram(years, counts);
+    }
+
+    // Rango de años muy amplio (o años absurdos): ordena una copia y cuenta las rachas.
+    private YearHistogram sparseHistogram(boolean parallel) {
+        int[] sorted = year.clone();
+        if (parallel) Arrays.parallelSort(sorted);
+        else Arrays.sort(sorted);
+        int distinct = 1;
+        for (int i = 1; i < sorted.length; i++) if (sorted[i] != sorted[i - 1]) distinct++;
+        int[] years = new int[distinct];
+        int[] counts = new int[distinct];
+        int j = -1;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) years[++j] = sorted[i];
+            counts[j]++;
+        }
+        return new YearHistogram(years, counts);
+    }
+
+    public int peakYear(boolean parallel) {
+        return yearHistogram(parallel).peakYear();
+    }
+}
@@ -0,0 +1,37 @@
+// Merge sort estable sobre int[] (ordinales, filas...) con un comparador de enteros,
+// para no encajar cada valor en Integer como haría Arrays.sort con un Comparator.
+final class OrdinalSort {
+    private OrdinalSort() { }
+
+    interface OrdinalComparator {
+        int compare(int a, int b);
+    }
+
+    // Ordena 0..size-1.
+    static int[] sort(int size, OrdinalComparator comparator) {
+        int[] ordinals = new int[size];
+        for (int i = 0; i < size; i++) ordinals[i] = i;
+        return sort(ordinals, comparator);
+    }
+
+    // Ordena los ordinales dados; puede devolver el propio array o uno nuevo.
+    static int[] sort(int[] ordinals, OrdinalComparator comparator) {
+        int size = ordinals.length;
+        int[] buffer = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size; low += 2 * width) {
+                int mid = Math.min(low + width, size);
+                int high = Math.min(low + 2 * width, size);
+                int i = low, j = mid, k = low;
+                while (i < mid && j < high)
+                    buffer[k++] = comparator.compare(ordinals[i], ordinals[j]) <= 0 ? ordinals[i++] : ordinals[j++];
+                while (i < mid) buffer[k++] = ordinals[i++];
+                while (j < high) buffer[k++] = ordinals[j++];
+            }
+            int[] swap = ordinals;
+            ordinals = buffer;
+            buffer = swap;
+        }
+        return ordinals;
+    }
+}
@@ -0,0 +1,177 @@
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+// Mapa inmutable con claves int y copia de camino: with y without devuelven un mapa
+// nuevo que comparte con el anterior todo salvo los nodos del camino de la clave. Es un
+// trie de 32 ramas sobre los bits de la clave (como mucho 7 niveles), con un bitmap por
+// nodo para no reservar las ramas vacías: cambiar una clave copia unos pocos arrays
+// pequeños, nunca el mapa entero. No admite valores null.
+final class PersistentIntMap<V> extends AbstractMap<Integer, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final Node EMPTY_NODE = new Node(0, new Object[0]);
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(EMPTY_NODE, 0);
+
+    // Ramas ocupadas del nodo y, en orden de rama, cada una: otro Node o un Leaf.
+    private record Node(int bitmap, Object[] children) {
+        Node insert(int bit, int index, Object child) {
+            Object[] copy = new Object[children.length + 1];
+            System.arraycopy(children, 0, copy, 0, index);
+            copy[index] = child;
+            System.arraycopy(children, index, copy, index + 1, children.length - index);
+            return new Node(bitmap | bit, copy);
+        }
+
+        Node replace(int index, Object child) {
+            Object[] copy = children.clone();
+            copy[index] = child;
+            return new Node(bitmap, copy);
+        }
+
+        Node remove(int bit, int index) {
+            Object[] copy = new Object[children.length - 1];
+            System.arraycopy(children, 0, copy, 0, index);
+            System.arraycopy(children, index + 1, copy, index, copy.length - index);
+            return new Node(bitmap & ~bit, copy);
+        }
+    }
+
+    private record Leaf(int key, Object value) { }
+
+    private final Node root;
+    private final int size;
+
+    private PersistentIntMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer id ? get(id.intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        Node node = root;
+        for (int shift = 0; ; shift += BITS) {
+            int bit = 1 << (key >>> shift & MASK);
+            if ((node.bitmap & bit) == 0) return null;
+            Object child = node.children[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (child instanceof Leaf leaf) return leaf.key == key ? (V) leaf.value : null;
+            node = (Node) child;
+        }
+    }
+
+    PersistentIntMap<V> with(int key, V value) {
+        Objects.requireNonNull(value);
+        return new PersistentIntMap<>(with(root, 0, new Leaf(key, value)), get(key) == null ? size + 1 : size);
+    }
+
+    PersistentIntMap<V> without(int key) {
+        if (get(key) == null) return this;
+        return new PersistentIntMap<>(without(root, 0, key), size - 1);
+    }
+
+    // Dos claves distintas difieren en algún bit, así que se separan antes de agotar los 32.
+    private static Node with(Node node, int shift, Leaf leaf) {
+        int bit = 1 << (leaf.key >>> shift & MASK);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) == 0) return node.insert(bit, index, leaf);
+        Object child = node.children[index];
+        if (child instanceof Node inner) return node.replace(index, with(inner, shift + BITS, leaf));
+        Leaf existing = (Leaf) child;
+        if (existing.key == leaf.key) return node.replace(index, leaf);
+        return node.replace(index, with(with(EMPTY_NODE, shift + BITS, existing), shift + BITS, leaf));
+    }
+
+    // Los nodos que se quedan vacíos desaparecen del padre.
+    private static Node without(Node node, int shift, int key) {
+        int bit = 1 << (key >>> shift & MASK);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        Object child = node.children[index];
+        if (child instanceof Leaf) return node.remove(bit, index);
+        Node removed = without((Node) child, shift + BITS, key);
+        return removed.bitmap == 0 ? node.remove(bit, index) : node.replace(index, removed);
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<Integer, V>> iterator() {
+                return new Entries();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Recorrido en profundidad con una pila explícita de nodos y la siguiente rama de cada uno.
+    private final class Entries implements Iterator<Map.Entry<Integer, V>> {
+        private final Node[] nodes = new Node[8];
+        private final int[] branches = new int[8];
+        private int depth;
+        private Leaf next;
+
+        Entries() {
+            nodes[0] = root;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                if (branches[depth] == node.children.length) {
+                    depth--;
+                    continue;
+                }
+                Object child = node.children[branches[depth]++];
+                if (child instanceof Leaf leaf) {
+                    next = leaf;
+                    return;
+                }
+                nodes[++depth] = (Node) child;
+                branches[depth] = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<Integer, V> next() {
+            if (next == null) throw new NoSuchElementException();
+            Map.Entry<Integer, V> entry = new AbstractMap.SimpleImmutableEntry<>(next.key, (V) next.value);
+            advance();
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+// Agrupación por las tres primeras letras sin substring ni listas: cada prefijo se
+// empaqueta en un long (17 bits por carácter) y cada grupo es el rango de posiciones
+// [starts[i], starts[i + 1]) dentro del orden alfabético del WordIndex. Las palabras
+// de un grupo se devuelven en el orden del fichero.
+//
+// El código de un carácter es c + 1 y 0 significa "no hay carácter": cualquier char
+// cabe entero, así que la clave respeta el orden alfabético y los grupos quedan
+// contiguos.
+public final class PrefixBuckets {
+    static final int MAGIC = 0x504B5453; // "PKTS"
+    static final int VERSION = 2;
+    private static final int BITS = 17;
+    private static final int MAX_CODE = (1 << BITS) - 1;
+
+    private final WordIndex index;
+    private final long[] keys;
+    private final int[] starts;
+
+    PrefixBuckets(WordIndex index, long[] keys, int[] starts) {
+        this.index = index;
+        this.keys = keys;
+        this.starts = starts;
+    }
+
+    public static PrefixBuckets build(WordIndex index) {
+        int size = index.size();
+        long[] keys = new long[256];
+        int[] starts = new int[257];
+        int buckets = 0;
+        for (int position = 0; position < size; position++) {
+            long key = key(index.wordAt(position));
+            if (buckets > 0 && keys[buckets - 1] == key) continue;
+            if (buckets == keys.length) {
+                keys = Arrays.copyOf(keys, buckets * 2);
+                starts = Arrays.copyOf(starts, buckets * 2 + 1);
+            }
+            keys[buckets] = key;
+            starts[buckets++] = position;
+        }
+        starts[buckets] = size;
+        return new PrefixBuckets(index, Arrays.copyOf(keys, buckets), Arrays.copyOf(starts, buckets + 1));
+    }
+
+    static long key(CharSequence word) {
+        long key = 0;
+        for (int i = 0; i < 3; i++) key = key << BITS | (i < word.length() ? code(word.charAt(i)) : 0);
+        return key;
+    }
+
+    private static int code(char c) {
+        return c + 1;
+    }
+
+    public int groups() {
+        return keys.length;
+    }
+
+    public String prefix(int group) {
+        StringBuilder prefix = new StringBuilder(3);
+        for (int shift = 2 * BITS; shift >= 0; shift -= BITS) {
+            int code = (int) (keys[group] >>> shift & MAX_CODE);
+            if (code != 0) prefix.append((char) (code - 1));
+        }
+        return prefix.toString();
+    }
+
+    public int groupSize(int group) {
+        return starts[group + 1] - starts[group];
+    }
+
+    public List<CharSequence> group(int group) {
+        return words(starts[group], starts[group + 1]);
+    }
+
+    // Palabras que empiezan por prefix. Hasta tres caracteres se resuelve con las claves;
+    // para prefijos más largos se delega en la búsqueda binaria del WordIndex.
+    public List<CharSequence> words(CharSequence prefix) {
+        if (prefix.length() > 3) return index.dictionary().words(index.fileOrder(index.prefix(prefix)));
+        long low = 0, high = 0;
+        for (int i = 0; i < 3; i++) {
+            int code = i < prefix.length() ? code(prefix.charAt(i)) : -1;
+            low = low << BITS | Math.max(code, 0);
+            high = high << BITS | (code < 0 ? MAX_CODE : code);
+        }
+        int from = Arrays.binarySearch(keys, low);
+        int to = Arrays.binarySearch(keys, high);
+        from = from < 0 ? -from - 1 : from;
+        to = to < 0 ? -to - 1 : to + 1;
+        return words(starts[from], starts[to]);
+    }
+
+    private List<CharSequence> words(int from, int to) {
+        int[] ordinals = new int[to - from];
+        for (int i = 0; i < ordinals.length; i++) ordinals[i] = index.ordinalAt(from + i);
+        return index.dictionary().words(index.fileOrder(ordinals));
+    }
+
+    public void save(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSize());
+        write(buffer);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    public static PrefixBuckets load(Path path, WordIndex index) throws IOException {
+        return read(Dictionary.map(path), index);
+    }
+
+    int serializedSize() {
+        return 4 * Integer.BYTES + keys.length * Long.BYTES + starts.length * Integer.BYTES;
+    }
+
+    void write(ByteBuffer buffer) {
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(index.size()).putInt(keys.length);
+        buffer.asLongBuffer().put(keys);
+        buffer.position(buffer.position() + keys.length * Long.BYTES);
+        buffer.asIntBuffer().put(starts);
+        buffer.position(buffer.position() + starts.length * Integer.BYTES);
+    }
+
+    static PrefixBuckets read(ByteBuffer buffer, WordIndex index) throws IOException {
+        DictionarySnapshot.require(buffer, 4, Integer.BYTES);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            throw new IOException("Not a prefix bucket file (version " + VERSION + ")");
+        int words = buffer.getInt();
+        if (words != index.size())
+            throw new IOException("Prefix buckets built for " + words + " words, dictionary has " + index.size());
+        int groups = buffer.getInt();
+        DictionarySnapshot.require(buffer, groups, Long.BYTES);
+        long[] keys = new long[groups];
+        buffer.asLongBuffer().get(keys);
+        buffer.position(buffer.position() + keys.length * Long.BYTES);
+        DictionarySnapshot.require(buffer, groups + 1, Integer.BYTES);
+        int[] starts = new int[keys.length + 1];
+        buffer.asIntBuffer().get(starts);
+        buffer.position(buffer.position() + starts.length * Integer.BYTES);
+        for (int i = 0; i < starts.length; i++)
+            if (starts[i] < (i == 0 ? 0 : starts[i - 1]) || starts[i] > words)
+                throw new IOException("Corrupt prefix bucket " + i + ": starts at " + starts[i]);
+        return new PrefixBuckets(index, keys, starts);
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// Caché de resultados de consultas, compartible entre objetos de consultas. La clave es
+// el dominio y el nombre de la consulta. Cada dominio tiene además unos datos vigentes,
+// por identidad: los objetos de consultas guardan una copia inmutable de sus datos, así
+// que la misma instancia son siempre los mismos datos. Dos objetos sobre los mismos
+// datos comparten resultados. Pedir una consulta sobre otros datos (también si la lista
+// original se modificó y se construyó otro objeto con ella) los hace vigentes y descarta
+// los resultados de los anteriores, que cuentan como invalidaciones: la caché no retiene
+// datos sustituidos (un diccionario mapeado, por ejemplo) hasta que salgan por el LRU.
+//
+// Con más de capacity resultados se expulsa el usado hace más tiempo (LRU, con un
+// LinkedHashMap en orden de acceso). La consulta se ejecuta fuera del cerrojo: dos hilos
+// que fallan a la vez pueden calcularla los dos, y se queda el último; un resultado de
+// datos que han dejado de ser vigentes mientras se calculaba no se guarda.
+//
+// Los resultados se comparten entre todos los que los piden, así que nadie recibe algo
+// que pueda cambiar lo que reciba el siguiente. Las listas, conjuntos y mapas (y las
+// colecciones que sean valores de un mapa) se guardan como vistas no modificables, y
+// Statistics y LengthStats como copias de solo lectura. Lo que no tiene versión de solo
+// lectura (BitSet, los arrays de YearHistogram) se guarda copiado y cada llamada recibe
+// otra copia.
+public final class QueryCache {
+    private record Key(String domain, String query) { }
+
+    // Resultado guardado; copied si hay que copiarlo para cada llamada.
+    private record Entry(Object value, boolean copied) { }
+
+    private final int capacity;
+    private final Map<Key, Entry> entries;
+    // Datos vigentes de cada dominio.
+    private final Map<String, Object> datasets = new HashMap<>();
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public QueryCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() <= QueryCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String domain, String query, Object dataset, Supplier<T> body) {
+        Key key = new Key(domain, query);
+        synchronized (this) {
+            Object current = datasets.put(domain, dataset);
+            if (current != null && current != dataset) discard(domain);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return (T) (entry.copied ? copy(entry.value) : entry.value);
+            }
+            misses++;
+        }
+        T value = body.get();
+        // Un resultado null no se guarda: se recalcula cada vez.
+        if (value == null) return null;
+        Entry entry = new Entry(freeze(value), mutable(value));
+        synchronized (this) {
+            if (datasets.get(domain) == dataset) entries.put(key, entry);
+        }
+        return (T) (entry.copied ? copy(entry.value) : entry.value);
+    }
+
+    // Lo que se guarda: las colecciones como vistas no modificables, las estadísticas de
+    // solo lectura y el resto de lo mutable copiado, para que no lo cambie quien lo calculó.
+    private static Object freeze(Object value) {
+        if (value instanceof List<?> list) return Collections.unmodifiableList(list);
+        if (value instanceof Set<?> set) return Collections.unmodifiableSet(set);
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, element) -> copy.put(key, freeze(element)));
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof Statistics statistics) return statistics.readOnly();
+        if (value instanceof LengthStats lengths) return lengths.readOnly();
+        return copy(value);
+    }
+
+    // Si cada llamada necesita su copia: el resultado, o algún valor del mapa, es mutable
+    // y no tiene versión de solo lectura.
+    private static boolean mutable(Object value) {
+        if (value instanceof Map<?, ?> map) return map.values().stream().anyMatch(QueryCache::mutable);
+        return value instanceof BitSet || value instanceof MovieTable.YearHistogram;
+    }
+
+    // Copia de un resultado mutable; los mapas se copian con sus valores.
+    private static Object copy(Object value) {
+        if (value instanceof BitSet bits) return bits.clone();
+        if (value instanceof MovieTable.YearHistogram histogram) return histogram.copy();
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, element) -> copy.put(key, copy(element)));
+            return Collections.unmodifiableMap(copy);
+        }
+        return value;
+    }
+
+    // Olvida todos los resultados de un dominio y sus datos vigentes.
+    public synchronized void invalidate(String domain) {
+        datasets.remove(domain);
+        discard(domain);
+    }
+
+    private void discard(String domain) {
+        int before = entries.size();
+        entries.keySet().removeIf(key -> key.domain.equals(domain));
+        invalidations += before - entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        datasets.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    public synchronized long invalidations() {
+        return invalidations;
+    }
+
+    public synchronized double hitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("QueryCache{size=%d/%d, hits=%d, misses=%d, hitRate=%.3f, evictions=%d, invalidations=%d}",
+                entries.size(), capacity, hits, misses, hitRate(), evictions, invalidations);
+    }
+}
@@ -0,0 +1,30 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Evento JFR por ejecución de una consulta; la duración la pone el propio evento. Se
+// activa como cualquier otro, p. ej. -XX:StartFlightRecording con un .jfc que incluya
+// "ejerciciosStream.Query", o desde JDK Mission Control.
+@Name("ejerciciosStream.Query")
+@Label("Query")
+@Category("ejerciciosStream")
+@Description("One execution of a stream query")
+final class QueryEvent extends jdk.jfr.Event {
+    @Label("Query")
+    String query;
+
+    @Label("Input")
+    @Description("Elements the query works on")
+    long input;
+
+    @Label("Output")
+    @Description("Elements in the result (1 for a single value)")
+    long output;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the calling thread")
+    @DataAmount
+    long allocated;
+}
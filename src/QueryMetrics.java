@@ -0,0 +1,116 @@
+import com.sun.management.ThreadMXBean;
+import jdk.jfr.EventType;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Instrumentación de las consultas: cada ejecución puede emitir un QueryEvent de JFR y
+// acumularse en un registro en memoria con un histograma de latencias por consulta.
+// Si ni el evento está activo en JFR ni el registro (-Dqueries.metrics=true o
+// setEnabled), run() solo ejecuta la consulta: ni evento, ni reloj, ni contadores.
+//
+// Los bytes reservados son los del hilo que llama; lo que reserven otros hilos en una
+// consulta paralela no cuenta.
+public final class QueryMetrics {
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final Map<String, Histogram> REGISTRY = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = Boolean.getBoolean("queries.metrics");
+    // Si alguna grabación tiene activo el evento, sin crear uno para preguntárselo.
+    private static final EventType EVENT = EventType.getEventType(QueryEvent.class);
+
+    private QueryMetrics() { }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        QueryMetrics.enabled = enabled;
+    }
+
+    public static <T> T run(String domain, String query, long input, Supplier<T> body) {
+        boolean metrics = enabled;
+        if (!metrics && !EVENT.isEnabled()) return body.get();
+        QueryEvent event = new QueryEvent();
+
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        event.begin();
+        T result = body.get();
+        event.end();
+        long nanos = System.nanoTime() - start;
+        allocated = THREADS.getCurrentThreadAllocatedBytes() - allocated;
+
+        String name = domain + "." + query;
+        if (event.shouldCommit()) {
+            event.query = name;
+            event.input = input;
+            event.output = size(result);
+            event.allocated = allocated;
+            event.commit();
+        }
+        if (metrics) REGISTRY.computeIfAbsent(name, key -> new Histogram()).record(nanos, allocated);
+        return result;
+    }
+
+    // Elementos del resultado: entradas, grupos, palabras, años o valores resumidos; 1
+    // para un valor suelto.
+    private static long size(Object result) {
+        if (result == null) return 0;
+        if (result instanceof Collection<?> collection) return collection.size();
+        if (result instanceof Map<?, ?> map) return map.size();
+        if (result instanceof PrefixBuckets buckets) return buckets.groups();
+        if (result instanceof VowelCounts counts) return counts.size();
+        if (result instanceof MovieTable.YearHistogram histogram) return histogram.years().length;
+        if (result instanceof Statistics statistics) return statistics.count();
+        return 1;
+    }
+
+    public static void reset() {
+        REGISTRY.clear();
+    }
+
+    // Tabla con una fila por consulta, ordenadas por nombre; latencias en microsegundos.
+    public static String summary() {
+        StringBuilder table = new StringBuilder(String.format("%-50s %8s %10s %10s %10s %10s %12s%n",
+                "query", "count", "mean", "p50", "p99", "max", "bytes/op"));
+        new TreeMap<>(REGISTRY).forEach((name, histogram) -> table.append(histogram.row(name)));
+        return table.toString();
+    }
+
+    // Latencias en cubos de potencias de dos de nanosegundos: percentiles con un error
+    // de a lo sumo el doble, en 64 contadores.
+    private static final class Histogram {
+        private final long[] buckets = new long[64];
+        private long count;
+        private long nanos;
+        private long max;
+        private long allocated;
+
+        synchronized void record(long nanos, long allocated) {
+            buckets[63 - Long.numberOfLeadingZeros(Math.max(1, nanos))]++;
+            count++;
+            this.nanos += nanos;
+            max = Math.max(max, nanos);
+            this.allocated += allocated;
+        }
+
+        // Límite superior del cubo donde cae la fracción p de las ejecuciones.
+        private long percentile(double p) {
+            long target = Math.max(1, (long) Math.ceil(p * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++)
+                if ((seen += buckets[i]) >= target) return Math.min(max, (2L << i) - 1);
+            return max;
+        }
+
+        synchronized String row(String name) {
+            return String.format("%-50s %8d %10.1f %10.1f %10.1f %10.1f %12d%n", name, count,
+                    nanos / 1e3 / count, percentile(0.5) / 1e3, percentile(0.99) / 1e3, max / 1e3, allocated / count);
+        }
+    }
+}
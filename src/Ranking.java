@@ -0,0 +1,209 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+// Ordenaciones y extremos sobre una lista de elementos según una clave numérica. La
+// clave se extrae una vez a un double[] (los int caben sin pérdida) y todo se compara
+// con Double.compare: nada de restas que desbordan ni de casts que truncan. Una clave
+// NaN deja el elemento fuera del ranking. A igualdad de clave gana el que aparece antes
+// en la lista. En modo paralelo se reparten la extracción, los extremos y el top-K.
+public final class Ranking<T> {
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    public record MinMax<T>(T min, T max) { }
+
+    private final List<T> items;
+    private final double[] keys;
+    private final int size;
+    private final boolean parallel;
+
+    private Ranking(List<T> items, double[] keys, int size, boolean parallel) {
+        this.items = items;
+        this.keys = keys;
+        this.size = size;
+        this.parallel = parallel;
+    }
+
+    public static <T> Ranking<T> of(List<T> items, ToDoubleFunction<? super T> key) {
+        return of(items, key, false);
+    }
+
+    public static <T> Ranking<T> of(List<T> items, ToDoubleFunction<? super T> key, boolean parallel) {
+        List<T> list = items instanceof RandomAccess ? items : new ArrayList<>(items);
+        double[] keys = new double[list.size()];
+        rows(keys.length, parallel).forEach(i -> keys[i] = key.applyAsDouble(list.get(i)));
+        int size = 0;
+        for (double value : keys) if (!Double.isNaN(value)) size++;
+        return new Ranking<>(list, keys, size, parallel && keys.length >= PARALLEL_THRESHOLD);
+    }
+
+    public static Ranking<Country> population(List<Country> countries) {
+        return of(countries, Country::population);
+    }
+
+    public static Ranking<Country> gnp(List<Country> countries) {
+        return of(countries, Country::gnp);
+    }
+
+    // Habitantes por unidad de superficie; los países sin población no entran.
+    public static Ranking<Country> density(List<Country> countries) {
+        return of(countries, country -> country.population() == 0 ? Double.NaN
+                : country.population() / country.surfaceArea());
+    }
+
+    public static Ranking<Country.City> cities(List<Country.City> cities) {
+        return of(cities, Country.City::population);
+    }
+
+    private static IntStream rows(int size, boolean parallel) {
+        IntStream rows = IntStream.range(0, size);
+        return parallel && size >= PARALLEL_THRESHOLD ? rows.parallel() : rows;
+    }
+
+    // Número de elementos con clave (los NaN no cuentan).
+    public int size() {
+        return size;
+    }
+
+    public T min() {
+        return minMax().min();
+    }
+
+    public T max() {
+        return minMax().max();
+    }
+
+    // Mínimo y máximo en una sola pasada.
+    public MinMax<T> minMax() {
+        int[] extremes = extremeRows();
+        return new MinMax<>(items.get(extremes[0]), items.get(extremes[1]));
+    }
+
+    // Elementos con la clave mínima o máxima (los primeros que la alcanzan), en el orden
+    // de la lista; vacío si no hay ninguno con clave.
+    public List<T> extremes() {
+        if (size == 0) return List.of();
+        int[] extremes = extremeRows();
+        int first = Math.min(extremes[0], extremes[1]);
+        int last = Math.max(extremes[0], extremes[1]);
+        return first == last ? List.of(items.get(first)) : List.of(items.get(first), items.get(last));
+    }
+
+    private int[] extremeRows() {
+        if (size == 0) throw new IllegalStateException("Nothing to rank");
+        int[] extremes = rows(keys.length, parallel).collect(() -> new int[]{-1, -1},
+                (e, row) -> {
+                    if (Double.isNaN(keys[row])) return;
+                    if (e[0] < 0 || Double.compare(keys[row], keys[e[0]]) < 0) e[0] = row;
+                    if (e[1] < 0 || Double.compare(keys[row], keys[e[1]]) > 0) e[1] = row;
+                },
+                (a, b) -> {
+                    if (b[0] >= 0 && (a[0] < 0 || before(b[0], a[0], -1))) a[0] = b[0];
+                    if (b[1] >= 0 && (a[1] < 0 || before(b[1], a[1], 1))) a[1] = b[1];
+                });
+        return extremes;
+    }
+
+    // Si la fila a va antes que b al ordenar por clave en el sentido dado (1 descendente,
+    // -1 ascendente), desempatando por posición.
+    private boolean before(int a, int b, int direction) {
+        int compare = Double.compare(keys[a], keys[b]) * direction;
+        return compare > 0 || compare == 0 && a < b;
+    }
+
+    // Los k elementos con mayor clave, de mayor a menor.
+    public List<T> top(int k) {
+        return top(k, 1);
+    }
+
+    // Los k elementos con menor clave, de menor a mayor.
+    public List<T> bottom(int k) {
+        return top(k, -1);
+    }
+
+    private List<T> top(int k, int direction) {
+        if (k < 0) throw new IllegalArgumentException("Negative k: " + k);
+        Heap heap = rows(keys.length, parallel).collect(() -> new Heap(Math.min(k, size), direction),
+                Heap::offer, Heap::merge);
+        return select(OrdinalSort.sort(Arrays.copyOf(heap.rows, heap.size), (a, b) -> before(a, b, direction) ? -1 : 1));
+    }
+
+    public List<T> descending() {
+        return sorted(1);
+    }
+
+    public List<T> ascending() {
+        return sorted(-1);
+    }
+
+    // Merge sort estable sobre las filas con clave.
+    private List<T> sorted(int direction) {
+        int[] rows = new int[size];
+        for (int row = 0, i = 0; row < keys.length; row++) if (!Double.isNaN(keys[row])) rows[i++] = row;
+        return select(OrdinalSort.sort(rows, (a, b) -> Double.compare(keys[b], keys[a]) * direction));
+    }
+
+    private List<T> select(int[] rows) {
+        List<T> result = new ArrayList<>(rows.length);
+        for (int row : rows) result.add(items.get(row));
+        return result;
+    }
+
+    // Montículo acotado de filas: en la raíz está la que antes saldría del top.
+    private final class Heap {
+        private final int[] rows;
+        private final int direction;
+        private int size;
+
+        Heap(int capacity, int direction) {
+            this.rows = new int[capacity];
+            this.direction = direction;
+        }
+
+        void offer(int row) {
+            if (Double.isNaN(keys[row]) || rows.length == 0) return;
+            if (size < rows.length) {
+                rows[size] = row;
+                up(size++);
+            } else if (before(row, rows[0], direction)) {
+                rows[0] = row;
+                down(0);
+            }
+        }
+
+        void merge(Heap other) {
+            for (int i = 0; i < other.size; i++) offer(other.rows[i]);
+        }
+
+        private boolean worse(int i, int j) {
+            return before(rows[j], rows[i], direction);
+        }
+
+        private void up(int i) {
+            while (i > 0 && worse(i, (i - 1) / 2)) {
+                swap(i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        }
+
+        private void down(int i) {
+            while (true) {
+                int worst = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++)
+                    if (worse(child, worst)) worst = child;
+                if (worst == i) return;
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int row = rows[i];
+            rows[i] = rows[j];
+            rows[j] = row;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+// Muestra aleatoria uniforme de k elementos de un stream de longitud desconocida, en
+// una pasada y con memoria O(k). Usa el algoritmo L de Li: en vez de tirar un número
+// por elemento, calcula cuántos elementos saltar hasta el próximo reemplazo, así que
+// el coste es O(k (1 + log(n / k))) números aleatorios.
+//
+// Dos reservorios se unen eligiendo cuántos elementos aporta cada uno con una
+// extracción hipergeométrica (según cuántos elementos vio cada uno), así que el
+// Collector funciona en streams paralelos. Con la misma semilla, un stream secuencial
+// da siempre la misma muestra; en paralelo depende además de cómo se reparta.
+public final class Reservoir<T> {
+    private final int k;
+    private final SplittableRandom random;
+    private final Object[] items;
+    private long count;
+    // Estado del algoritmo L: w es la mayor clave aleatoria de la muestra y next la
+    // posición del próximo elemento que entra.
+    private double w;
+    private long next;
+    // Tras una unión ya no hay claves coherentes: se sigue con el algoritmo R.
+    private boolean merged;
+
+    public Reservoir(int k, long seed) {
+        this(k, new SplittableRandom(seed));
+    }
+
+    private Reservoir(int k, SplittableRandom random) {
+        if (k < 0) throw new IllegalArgumentException("Negative sample size: " + k);
+        this.k = k;
+        this.random = random;
+        this.items = new Object[k];
+    }
+
+    public static <T> Collector<T, ?, List<T>> collector(int k, long seed) {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        return Collector.of(() -> new Reservoir<T>(k, split(seeds)), Reservoir::add, Reservoir::merge,
+                Reservoir::sample);
+    }
+
+    // Muestra de k elementos por estrato (por ejemplo, por especie o mascota/salvaje).
+    public static <T, K> Collector<T, ?, Map<K, List<T>>> stratified(Function<? super T, ? extends K> stratum,
+                                                                     int k, long seed) {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        return Collector.<T, Map<K, Reservoir<T>>, Map<K, List<T>>>of(LinkedHashMap::new,
+                (strata, item) -> {
+                    K key = stratum.apply(item);
+                    Reservoir<T> reservoir = strata.get(key);
+                    if (reservoir == null) strata.put(key, reservoir = new Reservoir<>(k, split(seeds)));
+                    reservoir.add(item);
+                },
+                (a, b) -> {
+                    b.forEach((key, reservoir) -> a.merge(key, reservoir, Reservoir::merge));
+                    return a;
+                },
+                strata -> {
+                    Map<K, List<T>> samples = new LinkedHashMap<>();
+                    strata.forEach((key, reservoir) -> samples.put(key, reservoir.sample()));
+                    return samples;
+                });
+    }
+
+    private static SplittableRandom split(SplittableRandom seeds) {
+        synchronized (seeds) {
+            return seeds.split();
+        }
+    }
+
+    public void add(T item) {
+        count++;
+        if (count <= k) {
+            items[(int) count - 1] = item;
+            if (count == k && !merged) {
+                w = Math.exp(Math.log(uniform()) / k);
+                skip();
+            }
+        } else if (merged) {
+            long slot = random.nextLong(count);
+            if (slot < k) items[(int) slot] = item;
+        } else if (count == next) {
+            items[random.nextInt(k)] = item;
+            w *= Math.exp(Math.log(uniform()) / k);
+            skip();
+        }
+    }
+
+    private void skip() {
+        next = count + (long) Math.floor(Math.log(uniform()) / Math.log(1 - w)) + 1;
+        if (next <= count) next = Long.MAX_VALUE;
+    }
+
+    // Número aleatorio en (0, 1): el logaritmo de 0 no sirve.
+    private double uniform() {
+        double u;
+        do u = random.nextDouble(); while (u == 0);
+        return u;
+    }
+
+    public Reservoir<T> merge(Reservoir<T> other) {
+        if (other.k != k) throw new IllegalArgumentException("Different sample sizes: " + k + " and " + other.k);
+        long total = count + other.count;
+        int size = (int) Math.min(k, total);
+        Object[] mine = Arrays.copyOf(items, (int) Math.min(k, count));
+        Object[] theirs = Arrays.copyOf(other.items, (int) Math.min(k, other.count));
+        // Cada elemento de la muestra sale de this con probabilidad proporcional a los
+        // elementos de this que quedan por elegir (extracción sin reemplazo).
+        long fromMine = count;
+        long fromTheirs = other.count;
+        int taken = 0;
+        int mineLeft = mine.length;
+        int theirsLeft = theirs.length;
+        while (taken < size) {
+            if (random.nextLong(fromMine + fromTheirs) < fromMine) {
+                items[taken++] = pick(mine, mineLeft--);
+                fromMine--;
+            } else {
+                items[taken++] = pick(theirs, theirsLeft--);
+                fromTheirs--;
+            }
+        }
+        count = total;
+        merged = true;
+        return this;
+    }
+
+    // Saca un elemento al azar de los size primeros, dejando los restantes delante.
+    private Object pick(Object[] sample, int size) {
+        int i = random.nextInt(size);
+        Object item = sample[i];
+        sample[i] = sample[size - 1];
+        return item;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<T> sample() {
+        List<T> sample = new ArrayList<>((int) Math.min(k, count));
+        for (int i = 0; i < Math.min(k, count); i++) sample.add((T) items[i]);
+        return sample;
+    }
+}
@@ -0,0 +1,149 @@
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import animals.Animal;
+import pets.Pet;
+
+// Registro de especies: cada implementación de Animal recibe un ordinal denso (0, 1,
+// 2... en orden de aparición) y unos metadatos que se calculan una sola vez: nombre,
+// patas y si es mascota. La búsqueda por clase va por un ClassValue, así que resolver
+// la especie de un animal no construye Strings ni consulta un HashMap, y agrupar o
+// contar por especie es incrementar un array indexado por ordinal. Una especie nueva
+// se registra sola la primera vez que aparece; no hay ningún switch que mantener.
+public final class Species {
+    private static final Map<Class<?>, Species> REGISTRY = new HashMap<>();
+    private static final List<Species> BY_ORDINAL = new ArrayList<>();
+    private static final ClassValue<Species> BY_CLASS = new ClassValue<>() {
+        @Override
+        protected Species computeValue(Class<?> type) {
+            if (!Animal.class.isAssignableFrom(type)) throw new IllegalArgumentException("Not an animal: " + type);
+            // ClassValue puede calcular el valor dos veces si hay carrera; el registro
+            // garantiza que cada clase tenga un único ordinal.
+            synchronized (REGISTRY) {
+                return REGISTRY.computeIfAbsent(type, key -> {
+                    Species species = new Species(BY_ORDINAL.size(), key);
+                    BY_ORDINAL.add(species);
+                    return species;
+                });
+            }
+        }
+    };
+
+    private final int ordinal;
+    private final Class<?> type;
+    private final String name;
+    private final boolean pet;
+    // Las patas salen de la primera instancia que se ve (-1 hasta entonces): todos los
+    // animales de una especie tienen las mismas.
+    private volatile int legs = -1;
+    // Constructor para recrear animales: (String nombre) en las mascotas, sin argumentos
+    // en el resto. Se busca la primera vez que hace falta.
+    private volatile Constructor<?> constructor;
+
+    private Species(int ordinal, Class<?> type) {
+        this.ordinal = ordinal;
+        this.type = type;
+        this.name = type.getSimpleName();
+        this.pet = Pet.class.isAssignableFrom(type);
+    }
+
+    public static Species of(Animal animal) {
+        Species species = BY_CLASS.get(animal.getClass());
+        if (species.legs < 0) species.legs = animal.legs();
+        return species;
+    }
+
+    public static Species of(Class<? extends Animal> type) {
+        return BY_CLASS.get(Objects.requireNonNull(type));
+    }
+
+    // Número de especies registradas hasta ahora; los ordinales van de 0 a count() - 1.
+    public static int count() {
+        synchronized (REGISTRY) {
+            return BY_ORDINAL.size();
+        }
+    }
+
+    public static Species byOrdinal(int ordinal) {
+        synchronized (REGISTRY) {
+            return BY_ORDINAL.get(ordinal);
+        }
+    }
+
+    // Animales de cada especie, indexados por ordinal (el array puede ser más corto que
+    // count() si hay especies que no aparecen).
+    public static long[] counts(List<? extends Animal> animals) {
+        long[] counts = new long[count()];
+        for (Animal animal : animals) {
+            int ordinal = of(animal).ordinal;
+            if (ordinal >= counts.length) counts = Arrays.copyOf(counts, count());
+            counts[ordinal]++;
+        }
+        return counts;
+    }
+
+    // Los recuentos por nombre de especie, solo de las especies presentes.
+    public static Map<String, Long> named(long[] counts) {
+        Map<String, Long> named = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < counts.length; ordinal++)
+            if (counts[ordinal] > 0) named.put(byOrdinal(ordinal).name, counts[ordinal]);
+        return named;
+    }
+
+    // Animales agrupados por número de patas, de menos a más.
+    public static Map<Integer, List<Animal>> byLegs(List<? extends Animal> animals) {
+        List<List<Animal>> groups = new ArrayList<>();
+        for (Animal animal : animals) {
+            int legs = of(animal).legs;
+            while (groups.size() <= legs) groups.add(null);
+            if (groups.get(legs) == null) groups.set(legs, new ArrayList<>());
+            groups.get(legs).add(animal);
+        }
+        Map<Integer, List<Animal>> byLegs = new LinkedHashMap<>();
+        for (int legs = 0; legs < groups.size(); legs++) if (groups.get(legs) != null) byLegs.put(legs, groups.get(legs));
+        return byLegs;
+    }
+
+    // Un animal nuevo de esta especie; el nombre solo se usa si es mascota.
+    public Animal create(String name) {
+        try {
+            Constructor<?> constructor = this.constructor;
+            if (constructor == null)
+                this.constructor = constructor = pet ? type.getConstructor(String.class) : type.getConstructor();
+            return (Animal) (pet ? constructor.newInstance(name) : constructor.newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create a " + name() + ": " + e, e);
+        }
+    }
+
+    public int ordinal() {
+        return ordinal;
+    }
+
+    public Class<?> type() {
+        return type;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int legs() {
+        return legs;
+    }
+
+    public boolean isPet() {
+        return pet;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,221 @@
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+// Estadísticas de una serie de valores en una sola pasada: cuenta, mínimo, máximo,
+// suma compensada (Kahan), media y varianza (Welford, combinadas con la fórmula de
+// Chan al unir parciales) y percentiles aproximados. Los percentiles salen de un
+// histograma de cubos logarítmicos (como DDSketch): el cubo i cubre (γ^(i-1), γ^i], así
+// que el valor devuelto tiene un error relativo de a lo sumo ACCURACY, con memoria
+// proporcional al logaritmo del rango y no al número de valores. Se puede unir con
+// otra instancia, por lo que sirve como Collector en streams paralelos y en groupingBy.
+public final class Statistics {
+    public static final double ACCURACY = 0.01;
+    private static final double GAMMA = (1 + ACCURACY) / (1 - ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum;
+    private double compensation;
+    private double mean;
+    private double squares;
+    private long zeros;
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets();
+    private boolean readOnly;
+
+    public static <T> Collector<T, ?, Statistics> collector(ToDoubleFunction<? super T> value) {
+        return Collector.of(Statistics::new, (statistics, t) -> statistics.add(value.applyAsDouble(t)),
+                Statistics::merge);
+    }
+
+    public void add(double value) {
+        checkWritable();
+        if (!Double.isFinite(value)) throw new IllegalArgumentException("Not a finite value: " + value);
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        addToSum(value);
+        double delta = value - mean;
+        mean += delta / count;
+        squares += delta * (value - mean);
+        if (value > 0) positive.add(bucket(value));
+        else if (value < 0) negative.add(bucket(-value));
+        else zeros++;
+    }
+
+    public Statistics merge(Statistics other) {
+        checkWritable();
+        if (other.count == 0) return this;
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        squares += other.squares + delta * delta * ((double) count * other.count / total);
+        mean += delta * other.count / total;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        addToSum(other.sum);
+        addToSum(-other.compensation);
+        zeros += other.zeros;
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        return this;
+    }
+
+    // Copia independiente: lo que se añada a una no cambia la otra.
+    public Statistics copy() {
+        Statistics copy = new Statistics();
+        copy.count = count;
+        copy.min = min;
+        copy.max = max;
+        copy.sum = sum;
+        copy.compensation = compensation;
+        copy.mean = mean;
+        copy.squares = squares;
+        copy.zeros = zeros;
+        copy.positive.copy(positive);
+        copy.negative.copy(negative);
+        return copy;
+    }
+
+    // Copia que se puede compartir: add y merge fallan en ella. Su copy() vuelve a ser
+    // modificable.
+    public Statistics readOnly() {
+        Statistics copy = copy();
+        copy.readOnly = true;
+        return copy;
+    }
+
+    private void checkWritable() {
+        if (readOnly) throw new UnsupportedOperationException("Read-only statistics");
+    }
+
+    private void addToSum(double value) {
+        double y = value - compensation;
+        double t = sum + y;
+        compensation = (t - sum) - y;
+        sum = t;
+    }
+
+    private static int bucket(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / LOG_GAMMA);
+    }
+
+    // Punto del cubo con el mismo error relativo respecto a sus dos extremos.
+    private static double estimate(int bucket) {
+        return 2 * Math.pow(GAMMA, bucket) / (GAMMA + 1);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double min() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double max() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    public double sum() {
+        return sum - compensation;
+    }
+
+    public double mean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    // Varianza de la población (dividida entre n).
+    public double variance() {
+        return count == 0 ? Double.NaN : squares / count;
+    }
+
+    // Varianza muestral (dividida entre n - 1).
+    public double sampleVariance() {
+        return count < 2 ? Double.NaN : squares / (count - 1);
+    }
+
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    // Valor aproximado (error relativo <= ACCURACY) por debajo del cual queda al menos
+    // la fracción p de los valores.
+    public double percentile(double p) {
+        if (p < 0 || p > 1) throw new IllegalArgumentException("Percentile out of [0, 1]: " + p);
+        if (count == 0) throw new IllegalStateException("No values added");
+        long target = Math.max(1, (long) Math.ceil(p * count));
+        double value;
+        if (target <= negative.total) value = -estimate(negative.bucketFromTop(target));
+        else if (target <= negative.total + zeros) value = 0;
+        else value = estimate(positive.bucketFromBottom(target - negative.total - zeros));
+        return Math.max(min, Math.min(max, value));
+    }
+
+    public double median() {
+        return percentile(0.5);
+    }
+
+    @Override
+    public String toString() {
+        if (count == 0) return "Statistics{count=0}";
+        return String.format("Statistics{count=%d, sum=%f, min=%f, average=%f, max=%f, stddev=%f, p50=%f, p90=%f, p99=%f}",
+                count, sum(), min, mean, max, standardDeviation(), percentile(0.5), percentile(0.9), percentile(0.99));
+    }
+
+    // Cuentas por cubo logarítmico en un long[] desplazado: counts[i] es el cubo offset + i.
+    private static final class Buckets {
+        private long[] counts = new long[0];
+        private int offset;
+        private long total;
+
+        void add(int bucket) {
+            add(bucket, 1);
+        }
+
+        private void add(int bucket, long n) {
+            if (counts.length == 0) {
+                counts = new long[16];
+                offset = bucket;
+            } else if (bucket < offset) {
+                int shift = Math.max(offset - bucket, counts.length);
+                long[] grown = new long[counts.length + shift];
+                System.arraycopy(counts, 0, grown, shift, counts.length);
+                counts = grown;
+                offset -= shift;
+            } else if (bucket - offset >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(bucket - offset + 1, counts.length * 2));
+            }
+            counts[bucket - offset] += n;
+            total += n;
+        }
+
+        void copy(Buckets other) {
+            counts = other.counts.clone();
+            offset = other.offset;
+            total = other.total;
+        }
+
+        void merge(Buckets other) {
+            for (int i = 0; i < other.counts.length; i++)
+                if (other.counts[i] > 0) add(other.offset + i, other.counts[i]);
+        }
+
+        // Cubo donde cae el valor de rango target (desde 1) contando desde el menor.
+        int bucketFromBottom(long target) {
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) if ((seen += counts[i]) >= target) return offset + i;
+            return offset + counts.length - 1;
+        }
+
+        // Igual, pero contando desde el mayor (para los negativos, guardados en valor absoluto).
+        int bucketFromTop(long target) {
+            long seen = 0;
+            for (int i = counts.length - 1; i >= 0; i--) if ((seen += counts[i]) >= target) return offset + i;
+            return offset;
+        }
+    }
+}
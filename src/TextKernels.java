@@ -0,0 +1,83 @@
+import java.nio.ByteBuffer;
+
+// Clasificación de caracteres del diccionario sin reservar memoria: una tabla de
+// bits para las vocales de Latin-1 (con tildes y diéresis) y palíndromos que solo
+// recorren la mitad de la palabra.
+public final class TextKernels {
+    private static final long[] VOWELS = new long[4];
+
+    static {
+        for (char c : "aeiouáàâäéèêëíìîïóòôöúùûüAEIOUÁÀÂÄÉÈÊËÍÌÎÏÓÒÔÖÚÙÛÜ".toCharArray())
+            VOWELS[c >>> 6] |= 1L << c;
+    }
+
+    private TextKernels() { }
+
+    public static boolean isVowel(char c) {
+        return c < 256 && (VOWELS[c >>> 6] & 1L << c) != 0;
+    }
+
+    public static int vowels(CharSequence word) {
+        int count = 0;
+        for (int i = 0; i < word.length(); i++) if (isVowel(word.charAt(i))) count++;
+        return count;
+    }
+
+    public static boolean isPalindrome(CharSequence word) {
+        for (int i = 0, j = word.length() - 1; i < j; i++, j--) if (word.charAt(i) != word.charAt(j)) return false;
+        return true;
+    }
+
+    // Clave de la consulta 3: las tres primeras letras, o la palabra entera si tiene menos de cuatro.
+    public static CharSequence firstLetters(CharSequence word) {
+        if (word.length() < 4) return word;
+        return word.subSequence(0, 3);
+    }
+
+    // Vocales de cada palabra de text[from, to), separadas por '\n'.
+    public static int[] vowels(char[] text, int from, int to) {
+        int[] counts = new int[lines(text, from, to)];
+        int word = 0, count = 0;
+        for (int i = from; i < to; i++) {
+            char c = text[i];
+            if (c == '\n') {
+                counts[word++] = count;
+                count = 0;
+            } else if (isVowel(c)) count++;
+        }
+        if (to > from && text[to - 1] != '\n') counts[word] = count;
+        return counts;
+    }
+
+    // Igual que la versión de char[] pero leyendo UTF-8: las vocales acentuadas son
+    // la secuencia 0xC3 xx, que se decodifica al vuelo sin pasar por un CharsetDecoder.
+    public static int[] vowels(ByteBuffer utf8) {
+        int from = utf8.position(), to = utf8.limit();
+        int lines = 0;
+        for (int i = from; i < to; i++) if (utf8.get(i) == '\n') lines++;
+        if (to > from && utf8.get(to - 1) != '\n') lines++;
+        int[] counts = new int[lines];
+        int word = 0, count = 0;
+        for (int i = from; i < to; i++) {
+            int b = utf8.get(i) & 0xff;
+            if (b == '\n') {
+                counts[word++] = count;
+                count = 0;
+            } else if (b < 0x80) {
+                if (isVowel((char) b)) count++;
+            } else if (b == 0xC3 && i + 1 < to && (utf8.get(i + 1) & 0xC0) == 0x80) {
+                // Solo si sigue un byte de continuación: si no, el byte siguiente (quizá
+                // un '\n') se trata en la vuelta siguiente.
+                if (isVowel((char) (0xC0 | utf8.get(++i) & 0x3F))) count++;
+            }
+        }
+        if (word < lines) counts[word] = count;
+        return counts;
+    }
+
+    private static int lines(char[] text, int from, int to) {
+        int lines = 0;
+        for (int i = from; i < to; i++) if (text[i] == '\n') lines++;
+        return to > from && text[to - 1] != '\n' ? lines + 1 : lines;
+    }
+}
@@ -0,0 +1,38 @@
+// Número de vocales de cada palabra en un byte[] alineado con los ordinales del
+// diccionario: un byte por palabra en lugar de un HashMap.Node con su Integer.
+// Las palabras repetidas simplemente ocupan dos posiciones con el mismo valor.
+public final class VowelCounts {
+    private final WordIndex index;
+    private final byte[] counts;
+
+    VowelCounts(WordIndex index, byte[] counts) {
+        this.index = index;
+        this.counts = counts;
+    }
+
+    public static VowelCounts build(WordIndex index) {
+        Dictionary dictionary = index.dictionary();
+        byte[] counts = new byte[dictionary.size()];
+        for (int i = 0; i < counts.length; i++)
+            counts[i] = (byte) Math.min(TextKernels.vowels(dictionary.word(i)), 0xff);
+        return new VowelCounts(index, counts);
+    }
+
+    public int size() {
+        return counts.length;
+    }
+
+    public int count(int ordinal) {
+        return counts[ordinal] & 0xff;
+    }
+
+    // Vocales de la palabra, o -1 si no está en el diccionario.
+    public int count(CharSequence word) {
+        int ordinal = index.find(word);
+        return ordinal < 0 ? -1 : count(ordinal);
+    }
+
+    byte[] counts() {
+        return counts;
+    }
+}
@@ -0,0 +1,221 @@
+import java.util.Arrays;
+
+// Índice ordenado sobre un Dictionary. Las consultas por rango y por prefijo son
+// dos búsquedas binarias más la copia de los k resultados; las de sufijo usan un
+// segundo orden por la palabra invertida. Todo devuelve ordinales del diccionario.
+// Las comparaciones leen los caracteres por ordinal, sin crear una vista por palabra.
+public final class WordIndex {
+    private final Dictionary dictionary;
+    private final int[] order; // null si el fichero ya venía ordenado
+    private final int[] suffixOrder;
+
+    WordIndex(Dictionary dictionary, int[] order, int[] suffixOrder) {
+        this.dictionary = dictionary;
+        this.order = order;
+        this.suffixOrder = suffixOrder;
+    }
+
+    public static WordIndex build(Dictionary dictionary) {
+        int size = dictionary.size();
+        boolean sorted = true;
+        for (int i = 1; i < size && sorted; i++) sorted = compare(dictionary, i - 1, i) <= 0;
+        int[] order = sorted ? null : OrdinalSort.sort(size, (a, b) -> compare(dictionary, a, b));
+        int[] suffixOrder = OrdinalSort.sort(size, (a, b) -> compareReversed(dictionary, a, b));
+        return new WordIndex(dictionary, order, suffixOrder);
+    }
+
+    public Dictionary dictionary() {
+        return dictionary;
+    }
+
+    public int size() {
+        return dictionary.size();
+    }
+
+    int[] order() {
+        return order;
+    }
+
+    int[] suffixOrder() {
+        return suffixOrder;
+    }
+
+    // Ordinal de la palabra que ocupa la posición dada en orden alfabético.
+    public int ordinalAt(int position) {
+        return order == null ? position : order[position];
+    }
+
+    public CharSequence wordAt(int position) {
+        return dictionary.word(ordinalAt(position));
+    }
+
+    // Ordinal de alguna aparición de la palabra, o -1 si no está.
+    public int find(CharSequence word) {
+        int position = lowerBound(word);
+        if (position < size() && compare(ordinalAt(position), word) == 0) return ordinalAt(position);
+        return -1;
+    }
+
+    // Palabras en [from, to).
+    public int[] range(CharSequence from, CharSequence to) {
+        return ordinals(lowerBound(from), lowerBound(to));
+    }
+
+    // Palabras desde from hasta el final del diccionario.
+    public int[] from(CharSequence from) {
+        return ordinals(lowerBound(from), size());
+    }
+
+    public int[] prefix(CharSequence prefix) {
+        return ordinals(lowerBound(prefix), prefixEnd(prefix));
+    }
+
+    public int[] suffix(CharSequence suffix) {
+        int from = suffixLowerBound(suffix);
+        int to = suffixEnd(suffix);
+        return Arrays.copyOfRange(suffixOrder, from, to);
+    }
+
+    // Ordinales distintos (los de una búsqueda) en el orden del fichero, reescribiendo el
+    // propio array. Si el fichero ya venía ordenado, las búsquedas los devuelven así. Si no,
+    // pocos se ordenan; muchos se marcan en un mapa de bits y se leen en orden, que es
+    // lineal.
+    public int[] fileOrder(int[] ordinals) {
+        if (order == null) return ordinals;
+        if (ordinals.length < size() >>> 6) {
+            Arrays.sort(ordinals);
+            return ordinals;
+        }
+        long[] bits = new long[(size() + 63) >>> 6];
+        for (int ordinal : ordinals) bits[ordinal >>> 6] |= 1L << ordinal;
+        int count = 0;
+        for (int i = 0; i < bits.length; i++)
+            for (long word = bits[i]; word != 0; word &= word - 1)
+                ordinals[count++] = i << 6 | Long.numberOfTrailingZeros(word);
+        return ordinals;
+    }
+
+    // Intersección de las dos búsquedas: se ordena el lado pequeño y se recorre el grande.
+    public int[] prefixAndSuffix(CharSequence prefix, CharSequence suffix) {
+        int[] starting = prefix(prefix);
+        int[] ending = suffix(suffix);
+        int[] small = starting.length <= ending.length ? starting : ending;
+        int[] large = small == starting ? ending : starting;
+        Arrays.sort(small);
+        int[] result = new int[small.length];
+        int count = 0;
+        for (int ordinal : large) if (Arrays.binarySearch(small, ordinal) >= 0) result[count++] = ordinal;
+        result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private int[] ordinals(int from, int to) {
+        if (from >= to) return new int[0];
+        if (order != null) return Arrays.copyOfRange(order, from, to);
+        int[] result = new int[to - from];
+        for (int i = 0; i < result.length; i++) result[i] = from + i;
+        return result;
+    }
+
+    private int lowerBound(CharSequence key) {
+        int low = 0, high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(ordinalAt(mid), key) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int prefixEnd(CharSequence prefix) {
+        int low = 0, high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(ordinalAt(mid), prefix) <= 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int suffixLowerBound(CharSequence key) {
+        int low = 0, high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareReversed(suffixOrder[mid], key) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int suffixEnd(CharSequence suffix) {
+        int low = 0, high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareSuffix(suffixOrder[mid], suffix) <= 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int compare(int ordinal, CharSequence key) {
+        int wordLength = dictionary.length(ordinal);
+        int length = Math.min(wordLength, key.length());
+        for (int i = 0; i < length; i++) {
+            int diff = dictionary.charAt(ordinal, i) - key.charAt(i);
+            if (diff != 0) return diff;
+        }
+        return wordLength - key.length();
+    }
+
+    // Compara solo los primeros prefix.length() caracteres de la palabra.
+    private int comparePrefix(int ordinal, CharSequence prefix) {
+        int wordLength = dictionary.length(ordinal);
+        int length = Math.min(wordLength, prefix.length());
+        for (int i = 0; i < length; i++) {
+            int diff = dictionary.charAt(ordinal, i) - prefix.charAt(i);
+            if (diff != 0) return diff;
+        }
+        return wordLength < prefix.length() ? -1 : 0;
+    }
+
+    private int compareSuffix(int ordinal, CharSequence suffix) {
+        int wordLength = dictionary.length(ordinal);
+        int length = Math.min(wordLength, suffix.length());
+        for (int i = 1; i <= length; i++) {
+            int diff = dictionary.charAt(ordinal, wordLength - i) - suffix.charAt(suffix.length() - i);
+            if (diff != 0) return diff;
+        }
+        return wordLength < suffix.length() ? -1 : 0;
+    }
+
+    private int compareReversed(int ordinal, CharSequence key) {
+        int wordLength = dictionary.length(ordinal);
+        int length = Math.min(wordLength, key.length());
+        for (int i = 1; i <= length; i++) {
+            int diff = dictionary.charAt(ordinal, wordLength - i) - key.charAt(key.length() - i);
+            if (diff != 0) return diff;
+        }
+        return wordLength - key.length();
+    }
+
+    private static int compare(Dictionary dictionary, int a, int b) {
+        int aLength = dictionary.length(a), bLength = dictionary.length(b);
+        int length = Math.min(aLength, bLength);
+        for (int i = 0; i < length; i++) {
+            int diff = dictionary.charAt(a, i) - dictionary.charAt(b, i);
+            if (diff != 0) return diff;
+        }
+        return aLength - bLength;
+    }
+
+    private static int compareReversed(Dictionary dictionary, int a, int b) {
+        int aLength = dictionary.length(a), bLength = dictionary.length(b);
+        int length = Math.min(aLength, bLength);
+        for (int i = 1; i <= length; i++) {
+            int diff = dictionary.charAt(a, aLength - i) - dictionary.charAt(b, bLength - i);
+            if (diff != 0) return diff;
+        }
+        return aLength - bLength;
+    }
+}
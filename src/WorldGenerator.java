@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Mundo sintético y reproducible para probar las consultas de países a escala. Con la
+// misma configuración (semilla incluida) siempre sale el mismo mundo. Las ciudades se
+// reparten entre países según una ley de Zipf con exponente skew (0 = uniforme), así
+// que unos pocos países acaparan muchas ciudades y bastantes se quedan sin ninguna;
+// las poblaciones de las ciudades siguen una cola larga (Pareto). Los ids de ciudad
+// son consecutivos desde 1 y la capital es una de las ciudades del país (0 si no tiene).
+public final class WorldGenerator {
+    private static final String[] CONTINENTS = {"Asia", "Europe", "North America", "Africa", "Oceania",
+            "Antarctica", "South America"};
+    private static final int MAX_CITY_POPULATION = 40_000_000;
+
+    public record Config(int countries, int cities, int continents, double skew, long seed) {
+        public Config {
+            if (countries < 1) throw new IllegalArgumentException("At least one country is needed: " + countries);
+            if (cities < 0) throw new IllegalArgumentException("Negative number of cities: " + cities);
+            if (continents < 1) throw new IllegalArgumentException("At least one continent is needed: " + continents);
+            if (skew < 0) throw new IllegalArgumentException("Negative skew: " + skew);
+        }
+
+        // Unas 20 ciudades por país de media, 7 continentes y reparto de Zipf con exponente 1.
+        public static Config ofCities(int cities, long seed) {
+            return new Config(Math.max(1, cities / 20), cities, CONTINENTS.length, 1, seed);
+        }
+    }
+
+    private WorldGenerator() { }
+
+    public static List<Country> generate(Config config) {
+        Random random = new Random(config.seed());
+        int countries = config.countries();
+
+        // Peso de Zipf por puesto, con los puestos barajados entre los países.
+        double[] cumulative = new double[countries];
+        double total = 0;
+        for (int rank = 0; rank < countries; rank++) cumulative[rank] = total += Math.pow(rank + 1, -config.skew());
+        int[] countryOfRank = new int[countries];
+        for (int i = 0; i < countries; i++) countryOfRank[i] = i;
+        for (int i = countries - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = countryOfRank[i];
+            countryOfRank[i] = countryOfRank[j];
+            countryOfRank[j] = swap;
+        }
+
+        int[] cityCounts = new int[countries];
+        int[] countryOfCity = new int[config.cities()];
+        for (int city = 0; city < countryOfCity.length; city++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            int country = countryOfRank[Math.min(countries - 1, rank < 0 ? -rank - 1 : rank)];
+            countryOfCity[city] = country;
+            cityCounts[country]++;
+        }
+        Country.City[][] cities = new Country.City[countries][];
+        for (int country = 0; country < countries; country++) cities[country] = new Country.City[cityCounts[country]];
+        Arrays.fill(cityCounts, 0);
+        for (int city = 0; city < countryOfCity.length; city++) {
+            int country = countryOfCity[city];
+            int population = (int) Math.min(MAX_CITY_POPULATION, 1_000 / Math.pow(1 - random.nextDouble(), 1 / 1.2));
+            cities[country][cityCounts[country]++] = new Country.City(city + 1, "City " + (city + 1), population);
+        }
+
+        List<Country> world = new ArrayList<>(countries);
+        for (int country = 0; country < countries; country++) {
+            Country.City[] own = cities[country];
+            long population = 0;
+            for (Country.City city : own) population += city.population();
+            // Población rural; algún país sin ciudades se queda deshabitado.
+            if (own.length > 0 || random.nextBoolean()) population += random.nextInt(1_000_000);
+            int capital = own.length == 0 ? 0 : own[random.nextInt(own.length)].id();
+            world.add(new Country(code(country), "Country " + country, continent(random.nextInt(config.continents())),
+                    1 + random.nextDouble() * 10_000_000, (int) Math.min(Integer.MAX_VALUE, population),
+                    population * (0.5 + random.nextDouble() * 50) / 1_000, capital, List.of(own)));
+        }
+        return world;
+    }
+
+    private static String continent(int index) {
+        return index < CONTINENTS.length ? CONTINENTS[index] : "Continent " + index;
+    }
+
+    // Códigos de tres letras mientras alcancen (AAA, AAB, ...); después, con un número.
+    private static String code(int country) {
+        if (country >= 26 * 26 * 26) return "C" + country;
+        return new String(new char[]{(char) ('A' + country / 676), (char) ('A' + country / 26 % 26),
+                (char) ('A' + country % 26)});
+    }
+}
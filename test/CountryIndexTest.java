@@ -0,0 +1,52 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CountryIndexTest {
+    private static final List<Country> WORLD =
+            WorldGenerator.generate(new WorldGenerator.Config(200, 4_000, 5, 1, 15));
+
+    @Test
+    void continentStatisticsCannotBeChangedFromOutside() {
+        CountryIndex index = CountryIndex.build(WORLD);
+        String name = index.continentNames().get(0);
+        String before = index.continent(name).population().toString();
+
+        Statistics handedOut = index.continent(name).population();
+        handedOut.add(2e12);
+        handedOut.merge(handedOut.copy());
+
+        assertNotSame(handedOut, index.continent(name).population());
+        assertEquals(before, index.continent(name).population().toString());
+    }
+
+    @Test
+    void populationStatisticsByContinentAreFreshCopies() {
+        CountryQueries queries = new CountryQueries(WORLD);
+        Map<String, Statistics> first = queries.populationStatisticsByContinent();
+        String before = first.toString();
+        first.values().forEach(statistics -> statistics.add(2e12));
+
+        assertEquals(before, queries.populationStatisticsByContinent().toString());
+    }
+
+    @Test
+    void copyMatchesTheOriginalAndIsIndependent() {
+        Statistics original = new Statistics();
+        for (int i = -500; i <= 1_000; i++) original.add(i * 1.37);
+        Statistics copy = original.copy();
+
+        assertEquals(original.toString(), copy.toString());
+        assertEquals(original.sum(), copy.sum());
+        assertEquals(original.sampleVariance(), copy.sampleVariance());
+        assertEquals(original.percentile(0.01), copy.percentile(0.01));
+        copy.add(1e9);
+        assertEquals(1_501, original.count());
+        assertEquals(1_370.0, original.max());
+        assertEquals(1e9, copy.max());
+    }
+}
@@ -0,0 +1,162 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DictionarySnapshotTest {
+    private static final String TEXT = "radar\r\ncañón\nzeta\nañejo\nama\n\nárbol\nabeja\nozono\nestreptococo\nzanahoria\n";
+
+    @TempDir
+    Path dir;
+    Path source;
+    Path snapshot;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        source = dir.resolve("palabras.txt");
+        snapshot = dir.resolve("palabras.snapshot");
+        Files.writeString(source, TEXT);
+    }
+
+    @Test
+    void reopenedSnapshotMatchesTheBuiltOne() throws IOException {
+        DictionarySnapshot built = DictionarySnapshot.open(source, snapshot);
+        FileTime written = Files.getLastModifiedTime(snapshot);
+        DictionarySnapshot read = DictionarySnapshot.open(source, snapshot);
+
+        assertEquals(written, Files.getLastModifiedTime(snapshot), "a current snapshot is not rewritten");
+        assertSame(built, read);
+        assertEquals(List.of("radar", "cañón", "zeta", "añejo", "ama", "árbol", "abeja", "ozono", "estreptococo",
+                "zanahoria"), strings(read.dictionary().words()));
+    }
+
+    @Test
+    void staleSnapshotIsRebuilt() throws IOException {
+        DictionarySnapshot.open(source, snapshot);
+        Files.writeString(source, TEXT + "ñu\n");
+
+        assertSame(DictionarySnapshot.build(ByteBuffer.wrap(Files.readAllBytes(source))),
+                DictionarySnapshot.open(source, snapshot));
+        assertEquals(11, DictionarySnapshot.open(source, snapshot).dictionary().size());
+    }
+
+    @Test
+    void sameSizeWithOtherContentIsRebuilt() throws IOException {
+        DictionarySnapshot.open(source, snapshot);
+        Files.writeString(source, TEXT.replace("zeta", "beta"));
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 5000));
+
+        assertEquals("beta", DictionarySnapshot.open(source, snapshot).dictionary().word(2).toString());
+    }
+
+    @Test
+    void touchedSourceKeepsTheSnapshot() throws IOException {
+        DictionarySnapshot built = DictionarySnapshot.open(source, snapshot);
+        byte[] before = Files.readAllBytes(snapshot);
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 5000));
+
+        assertSame(built, DictionarySnapshot.open(source, snapshot));
+        byte[] after = Files.readAllBytes(snapshot);
+        // Solo cambia la fecha guardada en la cabecera.
+        assertEquals(before.length, after.length);
+        for (int i = 0; i < before.length; i++)
+            if (i < 16 || i >= 24) assertEquals(before[i], after[i], "byte " + i);
+    }
+
+    @Test
+    void truncatedSnapshotIsRebuilt() throws IOException {
+        DictionarySnapshot built = DictionarySnapshot.open(source, snapshot);
+        byte[] complete = Files.readAllBytes(snapshot);
+        for (int length = 0; length < complete.length; length++) {
+            Files.write(snapshot, java.util.Arrays.copyOf(complete, length));
+            assertSame(built, DictionarySnapshot.open(source, snapshot));
+            assertArrayEquals(complete, Files.readAllBytes(snapshot), "rewritten after truncating to " + length);
+        }
+    }
+
+    @Test
+    void corruptBytesNeverBreakOpen() throws IOException {
+        DictionarySnapshot built = DictionarySnapshot.open(source, snapshot);
+        byte[] complete = Files.readAllBytes(snapshot);
+        // Desde el número de palabras: o la validación lo detecta y se reconstruye, o es un
+        // dato (un bit, un recuento) indistinguible de uno válido. Nunca una excepción.
+        for (int i = 32; i < complete.length; i++) {
+            byte[] corrupt = complete.clone();
+            corrupt[i] = (byte) 0xFF;
+            Files.write(snapshot, corrupt);
+            DictionarySnapshot opened = DictionarySnapshot.open(source, snapshot);
+            assertEquals(built.dictionary().size(), opened.dictionary().size(), "byte " + i);
+        }
+    }
+
+    @Test
+    void otherVersionIsRebuilt() throws IOException {
+        DictionarySnapshot built = DictionarySnapshot.open(source, snapshot);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        ByteBuffer.wrap(bytes).putInt(4, DictionarySnapshot.VERSION - 1);
+        Files.write(snapshot, bytes);
+
+        assertSame(built, DictionarySnapshot.open(source, snapshot));
+        assertEquals(DictionarySnapshot.VERSION, ByteBuffer.wrap(Files.readAllBytes(snapshot)).getInt(4));
+        assertFalse(Files.exists(dir.resolve("palabras.snapshot.tmp")));
+    }
+
+    @Test
+    void queriesKeepTheFileOrder() {
+        // Desordenado y con repetidas: las listas salen como las daría un filtro sobre el fichero.
+        DictionaryQueries queries = DictionaryQueries.of(
+                List.of("zeta", "ama", "abeto", "ñu", "abeja", "ama", "ozono", "añejo", "beta", "abeja"));
+
+        assertEquals(List.of("ama", "abeto", "abeja", "ama", "añejo", "beta", "abeja"), strings(queries.aToM()));
+        assertEquals(List.of("zeta", "ñu", "ozono"), strings(queries.nToEnd()));
+        assertEquals(List.of("abeto", "abeja", "abeja"), strings(queries.byFirstLetters().words("abe")));
+        assertEquals(List.of("abeto"), strings(queries.byFirstLetters().words("abet")));
+        assertEquals(List.of("ama", "ama"), strings(queries.byFirstLetters().words("ama")));
+
+        // Con más palabras los resultados pequeños se ordenan en vez de marcarse en un mapa de bits.
+        List<String> many = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) many.add("w" + i * 37 % 1000);
+        queries = DictionaryQueries.of(many);
+        assertEquals(many, strings(queries.nToEnd()));
+        assertEquals(many.stream().filter(word -> word.startsWith("w12")).toList(),
+                strings(queries.byFirstLetters().words("w12")));
+    }
+
+    // Mismo contenido, no la misma instancia.
+    private static void assertSame(DictionarySnapshot expected, DictionarySnapshot actual) {
+        int words = expected.dictionary().size();
+        assertEquals(strings(expected.dictionary().words()), strings(actual.dictionary().words()));
+        for (int i = 0; i < words; i++) {
+            assertEquals(expected.index().wordAt(i).toString(), actual.index().wordAt(i).toString());
+            assertEquals(expected.vowels().count(i), actual.vowels().count(i));
+        }
+        assertEquals(strings(expected.dictionary().words(expected.index().suffix("o"))),
+                strings(actual.dictionary().words(actual.index().suffix("o"))));
+        assertEquals(expected.prefixes().groups(), actual.prefixes().groups());
+        for (int group = 0; group < expected.prefixes().groups(); group++) {
+            assertEquals(expected.prefixes().prefix(group), actual.prefixes().prefix(group));
+            assertEquals(strings(expected.prefixes().group(group)), strings(actual.prefixes().group(group)));
+        }
+        assertEquals(expected.palindromes(), actual.palindromes());
+        assertEquals(strings(expected.lengths().topK()), strings(actual.lengths().topK()));
+        assertArrayEquals(expected.lengths().histogram(), actual.lengths().histogram());
+        assertEquals(expected.lengths().count(), actual.lengths().count());
+    }
+
+    private static List<String> strings(List<? extends CharSequence> words) {
+        List<String> strings = new ArrayList<>();
+        for (CharSequence word : words) strings.add(word.toString());
+        return strings;
+    }
+}
@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class MovieCatalogTest {
+    private static Movie movie(int id, int year, List<Movie.Genre> genres, List<Movie.Director> directors) {
+        return new Movie(id, "Película " + id, year, "tt" + id, genres, directors);
+    }
+
+    @Test
+    void snapshotsMatchTheCatalogContents() {
+        Random random = new Random(17);
+        List<Movie.Director> directors = new ArrayList<>();
+        for (int i = 0; i < 30; i++) directors.add(new Movie.Director(i * 1_000_003, "Director " + i, "nm" + i));
+        List<Movie.Genre> genres = new ArrayList<>();
+        for (int i = 0; i < 8; i++) genres.add(new Movie.Genre(i, "Género " + i));
+        MovieCatalog catalog = new MovieCatalog();
+        Map<Integer, Movie> present = new HashMap<>();
+        for (int i = 0; i < 3_000; i++) {
+            if (!present.isEmpty() && random.nextInt(4) == 0) {
+                int id = new ArrayList<>(present.keySet()).get(random.nextInt(present.size()));
+                catalog.remove(id);
+                present.remove(id);
+            } else {
+                Movie movie = movie(i, 1990 + random.nextInt(20),
+                        List.of(genres.get(random.nextInt(8)), genres.get(random.nextInt(8))),
+                        List.of(directors.get(random.nextInt(30)), directors.get(random.nextInt(30))));
+                catalog.add(movie);
+                present.put(i, movie);
+            }
+            if (i % 500 == 0) assertMatches(present.values(), catalog.snapshot());
+        }
+        assertMatches(present.values(), catalog.snapshot());
+    }
+
+    @Test
+    void snapshotsDoNotChangeAfterLaterWrites() {
+        Movie.Director director = new Movie.Director(7, "Director", "nm7");
+        Movie.Genre drama = new Movie.Genre(0, "Drama");
+        MovieCatalog catalog = new MovieCatalog();
+        MovieCatalog.Snapshot empty = catalog.snapshot();
+        catalog.add(movie(1, 2000, List.of(drama), List.of(director)));
+        MovieCatalog.Snapshot one = catalog.snapshot();
+        catalog.add(movie(2, 2001, List.of(drama), List.of(director)));
+        catalog.add(movie(3, 2001, List.of(drama), List.of(director)));
+
+        assertSame(catalog.snapshot(), catalog.snapshot());
+        assertEquals(Map.of(), empty.moviesPerDirector());
+        assertNull(empty.peakYear());
+        assertEquals(Map.of(7, 1L), one.moviesPerDirector());
+        assertEquals(Map.of(2000, 1L), one.moviesPerYear());
+        assertEquals(2000, one.peakYear());
+        assertEquals(Map.of(7, 3L), catalog.snapshot().moviesPerDirector());
+        assertEquals(2001, catalog.peakYear());
+        assertEquals(3, catalog.moviesOfDirector(7));
+        assertEquals(1, catalog.genresOfDirector(7));
+        assertEquals(2, catalog.moviesInYear(2001));
+    }
+
+    private static void assertMatches(Iterable<Movie> movies, MovieCatalog.Snapshot snapshot) {
+        Map<Integer, Long> perDirector = new HashMap<>();
+        Map<Integer, Set<Movie.Genre>> genresPerDirector = new HashMap<>();
+        Map<Integer, Long> perYear = new HashMap<>();
+        int count = 0;
+        for (Movie movie : movies) {
+            count++;
+            for (Movie.Director director : Set.copyOf(movie.directors())) {
+                perDirector.merge(director.id(), 1L, Long::sum);
+                genresPerDirector.computeIfAbsent(director.id(), id -> new HashSet<>()).addAll(movie.genres());
+            }
+            perYear.merge(movie.year(), 1L, Long::sum);
+        }
+        assertEquals(count, snapshot.movies());
+        assertEquals(perDirector, snapshot.moviesPerDirector());
+        assertEquals(genresPerDirector.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().size())),
+                snapshot.genresPerDirector());
+        assertEquals(perYear, snapshot.moviesPerYear());
+        Integer peak = perYear.entrySet().stream()
+                .max(Map.Entry.<Integer, Long>comparingByValue().thenComparing(Map.Entry.comparingByKey((a, b) -> b - a)))
+                .map(Map.Entry::getKey).orElse(null);
+        assertEquals(peak, snapshot.peakYear());
+    }
+}
@@ -0,0 +1,146 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+class MovieIndexTest {
+    private static final Movie.Genre DRAMA = new Movie.Genre(0, "Drama");
+    private static final Movie.Genre COMEDIA = new Movie.Genre(1, "Comedia");
+
+    private static Movie movie(int id, List<Movie.Genre> genres, Movie.Director... directors) {
+        return new Movie(id, "Película " + id, 2000, "tt" + id, genres, List.of(directors));
+    }
+
+    private static Movie.Director director(int id) {
+        return new Movie.Director(id, "Director " + id, "nm" + id);
+    }
+
+    @Test
+    void hugeAndNegativeDirectorIds() {
+        Movie.Director huge = director(Integer.MAX_VALUE);
+        Movie.Director sparse = director(50_000_000);
+        Movie.Director negative = director(-3);
+        List<Movie> movies = List.of(
+                movie(1, List.of(DRAMA), huge, sparse),
+                movie(2, List.of(DRAMA, COMEDIA), huge),
+                movie(3, List.of(COMEDIA), negative, huge));
+        MovieIndex index = MovieIndex.build(movies);
+
+        assertEquals(List.of(huge, sparse, negative), index.directors());
+        assertEquals(3, index.movieCount(Integer.MAX_VALUE));
+        assertEquals(1, index.movieCount(50_000_000));
+        assertEquals(1, index.movieCount(-3));
+        assertEquals(0, index.movieCount(49_999_999));
+        assertEquals(2, index.genreCount(Integer.MAX_VALUE));
+        assertEquals(1, index.genreCount(-3));
+        assertEquals(0, index.genreCount(0));
+        assertEquals(movies, index.moviesOfDirector(Integer.MAX_VALUE));
+        assertEquals(List.of(), index.moviesOfDirector(7));
+    }
+
+    @Test
+    void manySparseDirectorsMatchAMap() {
+        Random random = new Random(10);
+        List<Movie.Director> directors = new ArrayList<>();
+        Set<Integer> ids = new HashSet<>();
+        while (directors.size() < 5_000) {
+            int id = random.nextInt();
+            if (ids.add(id)) directors.add(director(id));
+        }
+        List<Movie> movies = new ArrayList<>();
+        Map<Integer, Long> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            Movie.Director director = directors.get(random.nextInt(directors.size()));
+            movies.add(movie(i, List.of(DRAMA), director));
+            expected.merge(director.id(), 1L, Long::sum);
+        }
+        MovieIndex index = MovieIndex.build(movies);
+
+        Map<Integer, Long> actual = new HashMap<>();
+        for (Movie.Director director : index.directors())
+            actual.merge(director.id(), index.movieCount(director.id()), Long::sum);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void hugeAndSparseGenreIds() {
+        Movie.Genre huge = new Movie.Genre(Integer.MAX_VALUE, "Drama");
+        Movie.Genre sparse = new Movie.Genre(2_000_000_000, "Comedia");
+        Movie.Genre other = new Movie.Genre(-1, "Terror");
+        List<Movie> movies = List.of(
+                movie(1, List.of(huge, sparse), director(1)),
+                movie(2, List.of(huge), director(1)),
+                movie(3, List.of(sparse, huge, other), director(2)));
+        MovieIndex index = MovieIndex.build(movies);
+        GenreSet dramaComedia = index.genreSet(index.genre("Drama"), index.genre("Comedia"));
+
+        assertEquals(List.of(huge, sparse, other), index.genres());
+        assertEquals(List.of(movies.get(0)), index.exactly(dramaComedia));
+        assertEquals(List.of(movies.get(0), movies.get(2)), index.withAll(dramaComedia));
+        assertEquals(List.of(movies.get(0), movies.get(1)), index.within(dramaComedia));
+        assertEquals(movies, index.withAny(dramaComedia));
+        assertEquals(List.of(movies.get(2)), index.moviesOfGenre(-1));
+        assertEquals(2, index.genreCount(1));
+        assertEquals(3, index.genreCount(2));
+        assertTrue(dramaComedia.contains(sparse));
+        assertFalse(dramaComedia.contains(other));
+    }
+
+    // Con más de 64 géneros, los de hueco 64 en adelante quedan fuera de las máscaras.
+    @Test
+    void moreGenresThanMaskBits() {
+        Random random = new Random(11);
+        List<Movie.Genre> genres = new ArrayList<>();
+        for (int i = 0; i < 100; i++) genres.add(new Movie.Genre(i * 40_000_000, "Género " + i));
+        List<Movie> movies = new ArrayList<>();
+        // Las primeras películas dan a cada género su hueco, en orden.
+        for (int i = 0; i < genres.size(); i++) movies.add(movie(i, List.of(genres.get(i)), director(i % 7)));
+        for (int i = 0; i < 2_000; i++) {
+            Set<Movie.Genre> some = new HashSet<>();
+            for (int j = random.nextInt(4); j >= 0; j--)
+                some.add(genres.get(random.nextBoolean() ? random.nextInt(3) : random.nextInt(genres.size())));
+            movies.add(movie(genres.size() + i, List.copyOf(some), director(random.nextInt(7))));
+        }
+        MovieIndex index = MovieIndex.build(movies);
+        Set<Movie.Genre> pair = Set.of(genres.get(0), genres.get(1));
+        GenreSet set = index.genreSet(pair);
+
+        assertEquals(filter(movies, movie -> Set.copyOf(movie.genres()).equals(pair)), index.exactly(set));
+        assertEquals(filter(movies, movie -> movie.genres().containsAll(pair)), index.withAll(set));
+        assertEquals(filter(movies, movie -> pair.containsAll(movie.genres())), index.within(set));
+        assertEquals(filter(movies, movie -> movie.genres().stream().anyMatch(pair::contains)), index.withAny(set));
+        for (int director = 0; director < 7; director++) {
+            Set<Movie.Genre> distinct = new HashSet<>();
+            for (Movie movie : index.moviesOfDirector(director)) distinct.addAll(movie.genres());
+            assertEquals(distinct.size(), index.genreCount(director), "director " + director);
+        }
+        assertThrows(IllegalArgumentException.class, () -> index.genreSet(genres.get(64)));
+        assertThrows(IllegalArgumentException.class, () -> index.genreSet(new Movie.Genre(5, "Ninguna")));
+    }
+
+    @Test
+    void genreSetsOfAnotherIndexAreRejected() {
+        MovieIndex first = MovieIndex.build(List.of(movie(1, List.of(DRAMA, COMEDIA), director(1))));
+        MovieIndex second = MovieIndex.build(List.of(movie(1, List.of(COMEDIA, DRAMA), director(1))));
+        GenreSet drama = first.genreSet(DRAMA);
+
+        assertThrows(IllegalArgumentException.class, () -> second.exactly(drama));
+        assertThrows(IllegalArgumentException.class, () -> second.genreSet(DRAMA).isSubsetOf(drama));
+        assertTrue(first.genreSet(DRAMA, COMEDIA).containsAll(drama));
+    }
+
+    private static List<Movie> filter(List<Movie> movies, Predicate<Movie> predicate) {
+        return movies.stream().filter(predicate).toList();
+    }
+}
@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MovieLoaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void awkwardFieldsRoundTrip() throws IOException {
+        Movie.Genre scifi = new Movie.Genre(3, "Ciencia Ficción");
+        Movie.Genre odd = new Movie.Genre(70_000, "a|b:c\\d");
+        Movie.Director lucas = new Movie.Director(0, "George:Lucas", "nm0000184");
+        Movie.Director odder = new Movie.Director(-5, "Ñandú | \"el\" \\ raro", "nm:1|2");
+        List<Movie> movies = List.of(
+                new Movie(0, "Star Wars: A New Hope", 1977, "tt0076759", List.of(scifi), List.of(lucas)),
+                new Movie(1, "Comas, \"comillas\" y\nsaltos\r\nde línea", 2001, "tt,1", List.of(scifi, odd),
+                        List.of(lucas, odder)),
+                new Movie(2, "\"Empieza con comillas\"", 1999, "", List.of(), List.of()),
+                new Movie(3, "", -40, "tt\"3\"", List.of(odd), List.of(odder)),
+                new Movie(4, "Emoji 😀 y ñ", 2020, "tt4", List.of(new Movie.Genre(5, "😀")), List.of(odder)));
+
+        assertEquals(movies, roundTrip(movies, false));
+        assertEquals(movies, roundTrip(movies, true));
+    }
+
+    @Test
+    void randomMoviesRoundTrip() throws IOException {
+        Random random = new Random(14);
+        String alphabet = "abc ,\"|:\\\n\r\tñáü😀";
+        List<Movie.Genre> genres = new ArrayList<>();
+        for (int i = 0; i < 10; i++) genres.add(new Movie.Genre(i, text(random, alphabet)));
+        List<Movie.Director> directors = new ArrayList<>();
+        for (int i = 0; i < 50; i++) directors.add(new Movie.Director(i, text(random, alphabet), text(random, alphabet)));
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++)
+            movies.add(new Movie(i, text(random, alphabet), 1900 + random.nextInt(120), text(random, alphabet),
+                    List.of(genres.get(random.nextInt(10)), genres.get(random.nextInt(10))),
+                    List.of(directors.get(random.nextInt(50)))));
+
+        assertEquals(movies, roundTrip(movies, false));
+        assertEquals(movies, roundTrip(movies, true));
+    }
+
+    @Test
+    void genresAndDirectorsAreShared() throws IOException {
+        Movie.Genre drama = new Movie.Genre(0, "Drama");
+        Movie.Director director = new Movie.Director(1, "Director", "nm1");
+        List<Movie> loaded = roundTrip(List.of(
+                new Movie(1, "Una", 2000, "tt1", List.of(drama), List.of(director)),
+                new Movie(2, "Otra", 2001, "tt2", List.of(drama), List.of(director))), true);
+
+        assertSame(loaded.get(0).genres().get(0), loaded.get(1).genres().get(0));
+        assertSame(loaded.get(0).directors().get(0), loaded.get(1).directors().get(0));
+    }
+
+    @Test
+    void headerIsOptionalAndBadRowsFail() throws IOException {
+        Path file = dir.resolve("movies.csv");
+        Files.writeString(file, "7,\"Sin, cabecera\",1990,tt7,1:Drama,2:Ana:nm2\r\n");
+        assertEquals(List.of(new Movie(7, "Sin, cabecera", 1990, "tt7", List.of(new Movie.Genre(1, "Drama")),
+                List.of(new Movie.Director(2, "Ana", "nm2")))), new MovieLoader().load(file, false).movies());
+
+        Files.writeString(file, MovieLoader.HEADER + "\n8,\"Sin cerrar,1990,tt8,,\n");
+        assertThrows(IllegalArgumentException.class, () -> new MovieLoader().load(file, false));
+        Files.writeString(file, "ocho,Título,1990,tt8,,\n");
+        assertThrows(IllegalArgumentException.class, () -> new MovieLoader().load(file, false));
+    }
+
+    private List<Movie> roundTrip(List<Movie> movies, boolean parallel) throws IOException {
+        Path file = dir.resolve("movies.csv");
+        MovieLoader.write(file, movies);
+        return new MovieLoader().load(file, parallel).movies();
+    }
+
+    // Texto de 0 a 8 caracteres del alfabeto; los pares suplentes van siempre juntos.
+    private static String text(Random random, String alphabet) {
+        StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(9); i > 0; i--) {
+            int at = alphabet.offsetByCodePoints(0, random.nextInt(alphabet.codePointCount(0, alphabet.length())));
+            text.appendCodePoint(alphabet.codePointAt(at));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PersistentIntMapTest {
+    @Test
+    void randomChangesMatchAHashMap() {
+        Random random = new Random(13);
+        PersistentIntMap<Long> map = PersistentIntMap.empty();
+        Map<Integer, Long> expected = new HashMap<>();
+        List<PersistentIntMap<Long>> versions = new ArrayList<>();
+        List<Map<Integer, Long>> expectedVersions = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            // Claves pequeñas (muchas colisiones de camino) y claves cualesquiera.
+            int key = random.nextBoolean() ? random.nextInt(512) : random.nextInt();
+            if (random.nextInt(3) == 0) {
+                map = map.without(key);
+                expected.remove(key);
+            } else {
+                long value = random.nextLong();
+                map = map.with(key, value);
+                expected.put(key, value);
+            }
+            if (i % 1_000 == 0) {
+                versions.add(map);
+                expectedVersions.add(Map.copyOf(expected));
+            }
+        }
+        assertEquals(expected, map);
+        // En este sentido equals y hashCode recorren las entradas del trie.
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertEquals(expected.size(), map.size());
+        for (int key : expected.keySet()) assertEquals(expected.get(key), map.get(key));
+        // Las versiones anteriores no cambian.
+        for (int i = 0; i < versions.size(); i++) assertEquals(versions.get(i), expectedVersions.get(i));
+    }
+
+    @Test
+    void extremeKeys() {
+        PersistentIntMap<String> map = PersistentIntMap.<String>empty()
+                .with(Integer.MIN_VALUE, "min").with(Integer.MAX_VALUE, "max").with(0, "cero").with(-1, "menos uno");
+
+        assertEquals(Map.of(Integer.MIN_VALUE, "min", Integer.MAX_VALUE, "max", 0, "cero", -1, "menos uno"), map);
+        assertEquals(Map.of(Integer.MIN_VALUE, "min", 0, "cero"), map.without(Integer.MAX_VALUE).without(-1));
+        assertEquals(Map.of(), map.without(Integer.MIN_VALUE).without(Integer.MAX_VALUE).without(0).without(-1));
+        assertNull(map.get("0"));
+    }
+
+    @Test
+    void removingAMissingKeyKeepsTheMap() {
+        PersistentIntMap<String> map = PersistentIntMap.<String>empty().with(1, "uno");
+
+        assertSame(map, map.without(33));
+        assertThrows(NullPointerException.class, () -> map.with(2, null));
+        assertThrows(UnsupportedOperationException.class, () -> map.put(2, "dos"));
+    }
+}
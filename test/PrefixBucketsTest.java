@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PrefixBucketsTest {
+    private static final String TEXT = "ab\nabeja\nabedul\nañejo\naño\nzeta\nz\n😀x\nabecé\n";
+
+    @TempDir
+    Path dir;
+
+    private static WordIndex index(String text) {
+        return WordIndex.build(Dictionary.index(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void groupsByTheFirstThreeLetters() {
+        PrefixBuckets buckets = PrefixBuckets.build(index(TEXT));
+
+        assertEquals(List.of("ab", "abe", "año", "añe", "z", "zet", "😀x").stream().sorted().toList(),
+                prefixes(buckets));
+        // Las palabras de cada grupo, en el orden del fichero.
+        assertEquals(List.of("abeja", "abedul", "abecé"), strings(buckets.words("abe")));
+        assertEquals(List.of("ab", "abeja", "abedul", "abecé"), strings(buckets.words("ab")));
+        assertEquals(List.of("abedul"), strings(buckets.words("abed")));
+        assertEquals(List.of(), strings(buckets.words("x")));
+    }
+
+    @Test
+    void savedBucketsLoadBack() throws IOException {
+        WordIndex index = index(TEXT);
+        PrefixBuckets buckets = PrefixBuckets.build(index);
+        Path file = dir.resolve("buckets.bin");
+        buckets.save(file);
+
+        PrefixBuckets loaded = PrefixBuckets.load(file, index);
+        assertEquals(prefixes(buckets), prefixes(loaded));
+        for (int group = 0; group < buckets.groups(); group++)
+            assertEquals(strings(buckets.group(group)), strings(loaded.group(group)));
+    }
+
+    @Test
+    void loadRejectsAnotherDictionary() throws IOException {
+        Path file = dir.resolve("buckets.bin");
+        PrefixBuckets.build(index(TEXT)).save(file);
+
+        assertThrows(IOException.class, () -> PrefixBuckets.load(file, index(TEXT + "otra\n")));
+    }
+
+    @Test
+    void loadRejectsTruncatedOrCorruptFiles() throws IOException {
+        WordIndex index = index(TEXT);
+        Path file = dir.resolve("buckets.bin");
+        PrefixBuckets.build(index).save(file);
+        byte[] complete = Files.readAllBytes(file);
+        for (int length = 0; length < complete.length; length++) {
+            Files.write(file, Arrays.copyOf(complete, length));
+            assertThrows(IOException.class, () -> PrefixBuckets.load(file, index), "truncated to " + length);
+        }
+        // Un inicio de grupo fuera de orden.
+        byte[] corrupt = complete.clone();
+        ByteBuffer.wrap(corrupt).putInt(corrupt.length - 2 * Integer.BYTES, Integer.MAX_VALUE);
+        Files.write(file, corrupt);
+        assertThrows(IOException.class, () -> PrefixBuckets.load(file, index));
+    }
+
+    private static List<String> prefixes(PrefixBuckets buckets) {
+        List<String> prefixes = new ArrayList<>();
+        for (int group = 0; group < buckets.groups(); group++) prefixes.add(buckets.prefix(group));
+        return prefixes;
+    }
+
+    private static List<String> strings(List<? extends CharSequence> words) {
+        List<String> strings = new ArrayList<>();
+        for (CharSequence word : words) strings.add(word.toString());
+        return strings;
+    }
+}
@@ -0,0 +1,117 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class QueryCacheTest {
+    private final QueryCache cache = new QueryCache(16);
+    private final Object dataset = new Object();
+
+    @Test
+    void mutatedResultsDoNotLeakIntoTheNextHit() {
+        Statistics statistics = cache.get("test", "statistics", dataset, () -> statistics(1, 2, 3));
+        assertThrows(UnsupportedOperationException.class, () -> statistics.add(1e9));
+        assertThrows(UnsupportedOperationException.class, () -> statistics.merge(statistics(4)));
+        statistics.copy().add(1e9);
+        // También lo que conserve quien calculó el resultado.
+        Statistics computed = statistics(1, 2, 3);
+        cache.get("test", "computed", dataset, () -> computed);
+        computed.add(1e9);
+
+        MovieTable.YearHistogram histogram = cache.get("test", "histogram", dataset,
+                () -> new MovieTable.YearHistogram(new int[]{1999, 2000}, new int[]{4, 5}));
+        histogram.counts()[0] = 99;
+        histogram.years()[1] = 1900;
+
+        BitSet bits = cache.get("test", "bits", dataset, () -> BitSet.valueOf(new long[]{0b101}));
+        bits.set(1);
+
+        LengthStats lengths = cache.get("test", "lengths", dataset, () -> lengths("ama", "abeja"));
+        assertThrows(UnsupportedOperationException.class, () -> lengths.add("estreptococo"));
+        lengths.copy().add("estreptococo");
+
+        Map<String, Statistics> byContinent = cache.get("test", "byContinent", dataset,
+                () -> Map.of("Europa", statistics(1, 2)));
+        assertThrows(UnsupportedOperationException.class, () -> byContinent.get("Europa").add(1e9));
+
+        assertEquals(3, cache.get("test", "statistics", dataset, () -> statistics()).count());
+        assertEquals(3, cache.get("test", "computed", dataset, () -> statistics()).count());
+        MovieTable.YearHistogram cached = cache.get("test", "histogram", dataset, () -> null);
+        assertArrayEquals(new int[]{1999, 2000}, cached.years());
+        assertArrayEquals(new int[]{4, 5}, cached.counts());
+        assertEquals(BitSet.valueOf(new long[]{0b101}), cache.get("test", "bits", dataset, () -> null));
+        LengthStats cachedLengths = cache.get("test", "lengths", dataset, () -> null);
+        assertEquals(2, cachedLengths.count());
+        assertEquals("abeja", cachedLengths.longest().toString());
+        Map<String, Statistics> cachedByContinent = cache.get("test", "byContinent", dataset, () -> null);
+        assertEquals(2, cachedByContinent.get("Europa").count());
+        assertEquals(6, cache.hits());
+    }
+
+    @Test
+    void collectionsAreReadOnly() {
+        List<String> words = cache.get("test", "words", dataset, () -> new ArrayList<>(List.of("ama")));
+        Map<String, List<String>> groups = cache.get("test", "groups", dataset,
+                () -> Map.of("a", new ArrayList<>(List.of("ama"))));
+
+        assertThrows(UnsupportedOperationException.class, () -> words.add("abeja"));
+        assertThrows(UnsupportedOperationException.class, () -> groups.get("a").add("abeja"));
+        assertThrows(UnsupportedOperationException.class, () -> groups.put("b", List.of()));
+    }
+
+    @Test
+    void newDataSupersedesTheOldResults() {
+        List<Country> world = List.of(new Country("ESP", "España", "Europa", 505_990, 47_000_000, 1, 0, List.of()));
+        CountryQueries first = new CountryQueries(world, cache);
+        assertEquals(List.of("España"), first.byDensity());
+        assertEquals(List.of("España"), first.byDensity());
+        assertEquals(1, cache.hits());
+
+        // Los mismos países en otra lista: otros datos, que sustituyen a los del primero.
+        CountryQueries other = new CountryQueries(new ArrayList<>(world), cache);
+        other.byDensity();
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.invalidations());
+        assertEquals(1, cache.size());
+        // Otro dominio no se ve afectado.
+        cache.get("test", "query", dataset, () -> "x");
+        other.byDensity();
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.hits());
+    }
+
+    @Test
+    void supersededDataIsReleased() throws InterruptedException {
+        Object old = new Object();
+        WeakReference<Object> reference = new WeakReference<>(old);
+        cache.get("test", "query", old, () -> new ArrayList<>(List.of("old")));
+        old = null;
+
+        assertEquals(List.of("new"), cache.get("test", "query", dataset, () -> new ArrayList<>(List.of("new"))));
+        for (int i = 0; i < 20 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+
+    private static Statistics statistics(double... values) {
+        Statistics statistics = new Statistics();
+        for (double value : values) statistics.add(value);
+        return statistics;
+    }
+
+    private static LengthStats lengths(String... words) {
+        LengthStats lengths = new LengthStats(2);
+        for (String word : words) lengths.add(word);
+        return lengths;
+    }
+}
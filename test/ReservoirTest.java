@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class ReservoirTest {
+    private static final int TRIALS = 20_000;
+
+    @Test
+    void mergedSampleIsUniform() {
+        // 30 elementos en un reservorio y 70 en otro: cada uno debe salir con probabilidad 10/100.
+        int[] hits = new int[100];
+        for (int trial = 0; trial < TRIALS; trial++) {
+            Reservoir<Integer> left = fill(new Reservoir<>(10, trial), 0, 30);
+            Reservoir<Integer> right = fill(new Reservoir<>(10, ~trial), 30, 100);
+            List<Integer> sample = left.merge(right).sample();
+            assertEquals(10, new HashSet<>(sample).size());
+            for (int item : sample) hits[item]++;
+        }
+        assertUniform(hits, TRIALS * 10.0 / 100);
+    }
+
+    @Test
+    void addingAfterAMergeStaysUniform() {
+        int[] hits = new int[60];
+        for (int trial = 0; trial < TRIALS; trial++) {
+            Reservoir<Integer> merged = fill(new Reservoir<>(5, trial), 0, 20).merge(fill(new Reservoir<>(5, -trial), 20, 30));
+            for (int item : fill(merged, 30, 60).sample()) hits[item]++;
+            assertEquals(60, merged.count());
+        }
+        assertUniform(hits, TRIALS * 5.0 / 60);
+    }
+
+    @Test
+    void smallAndEmptyMerges() {
+        assertEquals(List.of(0, 1, 2), sorted(fill(new Reservoir<>(5, 1), 0, 2).merge(fill(new Reservoir<>(5, 2), 2, 3))));
+        assertEquals(List.of(0, 1), sorted(fill(new Reservoir<>(5, 1), 0, 2).merge(new Reservoir<>(5, 2))));
+        assertEquals(List.of(0, 1), sorted(new Reservoir<Integer>(5, 1).merge(fill(new Reservoir<>(5, 2), 0, 2))));
+        assertEquals(List.of(), new Reservoir<Integer>(0, 1).merge(fill(new Reservoir<>(0, 2), 0, 10)).sample());
+        assertThrows(IllegalArgumentException.class, () -> new Reservoir<Integer>(3, 1).merge(new Reservoir<>(4, 1)));
+    }
+
+    @Test
+    void parallelCollectorIsUniform() {
+        int[] hits = new int[1_000];
+        for (int trial = 0; trial < 2_000; trial++) {
+            List<Integer> sample = IntStream.range(0, hits.length).boxed().parallel()
+                    .collect(Reservoir.collector(50, trial));
+            assertEquals(50, new HashSet<>(sample).size());
+            for (int item : sample) hits[item]++;
+        }
+        assertUniform(hits, 2_000 * 50.0 / 1_000);
+    }
+
+    @Test
+    void sequentialSampleDependsOnlyOnTheSeed() {
+        List<Integer> first = IntStream.range(0, 10_000).boxed().collect(Reservoir.collector(20, 7));
+        assertEquals(first, IntStream.range(0, 10_000).boxed().collect(Reservoir.collector(20, 7)));
+
+        Map<Boolean, List<Integer>> strata = IntStream.range(0, 1_000).boxed()
+                .collect(Reservoir.stratified(i -> i % 2 == 0, 10, 7));
+        assertTrue(strata.get(true).stream().allMatch(i -> i % 2 == 0));
+        assertEquals(10, strata.get(false).size());
+    }
+
+    private static Reservoir<Integer> fill(Reservoir<Integer> reservoir, int from, int to) {
+        for (int i = from; i < to; i++) reservoir.add(i);
+        return reservoir;
+    }
+
+    private static List<Integer> sorted(Reservoir<Integer> reservoir) {
+        return reservoir.sample().stream().sorted().toList();
+    }
+
+    // Cada recuento dentro de seis desviaciones de la binomial: con semillas fijas no falla
+    // por azar, pero un sesgo de unos pocos puntos sí se nota.
+    private static void assertUniform(int[] hits, double expected) {
+        double tolerance = 6 * Math.sqrt(expected);
+        for (int i = 0; i < hits.length; i++)
+            assertTrue(Math.abs(hits[i] - expected) <= tolerance, "item " + i + ": " + hits[i] + ", expected " + expected);
+    }
+}